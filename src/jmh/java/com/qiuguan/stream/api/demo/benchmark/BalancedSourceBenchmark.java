@@ -0,0 +1,69 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.source.BalancedSpliterators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 21:52:19 Sunday
+ * <p>
+ * {@code CreateStreamApiDemo} 中大小未知的数据源加上 parallel() 之后，和 {@link BalancedSpliterators} 包装之后的并行效果对比。
+ * work 是每个元素的模拟计算量(Blackhole.consumeCPU 的 token 数)。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalancedSourceBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int work;
+
+    private long cost(int value) {
+        Blackhole.consumeCPU(work);
+        return value;
+    }
+
+    @Benchmark
+    public long iterateParallel() {
+        return Stream.iterate(0, n -> n < size, n -> n + 1).parallel().mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long iterateBalanced() {
+        return BalancedSpliterators.balanced(Stream.iterate(0, n -> n < size, n -> n + 1)).mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long iterateArithmetic() {
+        return BalancedSpliterators.iterate(0, size - 1, 1).parallel().mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long generateLimitParallel() {
+        return Stream.generate(() -> 1).limit(size).parallel().mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long generateLimitBalanced() {
+        return BalancedSpliterators.balanced(Stream.generate(() -> 1).limit(size)).mapToLong(this::cost).sum();
+    }
+}
@@ -0,0 +1,36 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:46:07 Sunday
+ * <p>
+ * benchmarks.jar 的入口，和 org.openjdk.jmh.Main 接受相同的命令行参数，
+ * 区别是默认把结果以 JSON 格式写到 target/jmh-result.json，方便不同版本之间做对比。
+ * <pre>
+ *     java -jar target/benchmarks.jar                                  全部基准
+ *     java -jar target/benchmarks.jar TerminalOperation -p size=1000   只跑一部分
+ *     java -jar target/benchmarks.jar -rff release-1.0.json            指定结果文件
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .resultFormat(cmd.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cmd.getResult().orElse(DEFAULT_RESULT_FILE))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.columnar.PersonColumnarFile;
+import com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter;
+import com.qiuguan.stream.api.demo.table.PersonTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 23:58:30 Sunday
+ * <p>
+ * 同一份数据从 CSV 解析和从列式文件读取的对比，包括整表装载和只读 age 列的 age > 30 求和
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarFileBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path csv;
+
+    private Path columnar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Person> persons = PersonDataset.generate(size);
+        csv = Files.createTempFile("persons", ".csv");
+        Files.write(csv, persons.stream()
+                .map(p -> p.getName() + "," + p.getAge() + "," + p.getSex() + "," + p.getCountry())
+                .collect(Collectors.toList()));
+        columnar = Files.createTempFile("persons", ".pcol");
+        PersonColumnarWriter.write(columnar, persons);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(columnar);
+    }
+
+    @Benchmark
+    public PersonTable loadCsv() throws IOException {
+        PersonTable table = new PersonTable(size);
+        try (Stream<String> lines = Files.lines(csv)) {
+            lines.forEach(line -> {
+                String[] fields = line.split(",");
+                table.add(fields[0], Integer.parseInt(fields[1]), fields[2], fields[3]);
+            });
+        }
+        return table;
+    }
+
+    @Benchmark
+    public PersonTable loadColumnar() throws IOException {
+        return PersonColumnarFile.open(columnar).toTable();
+    }
+
+    @Benchmark
+    public long sumAgeOver30Csv() throws IOException {
+        try (Stream<String> lines = Files.lines(csv)) {
+            return lines.mapToInt(line -> Integer.parseInt(line.split(",")[1])).filter(age -> age > 30).asLongStream().sum();
+        }
+    }
+
+    @Benchmark
+    public long sumAgeOver30Columnar() throws IOException {
+        return PersonColumnarFile.open(columnar).agesBetween(31, Integer.MAX_VALUE).asLongStream().sum();
+    }
+}
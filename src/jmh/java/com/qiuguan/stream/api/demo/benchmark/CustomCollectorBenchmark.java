@@ -0,0 +1,73 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:38:50 Sunday
+ * <p>
+ * 对应 {@link com.qiuguan.stream.api.demo.create.CustomCollectorDemo} 和
+ * {@link com.qiuguan.stream.api.demo.create.ParallelStreamDemo} 中的 Collector.of 写法，去掉了打印，只保留容器操作本身
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomCollectorBenchmark {
+
+    @Benchmark
+    public List<Person> collectToList(PersonState state) {
+        return state.stream().collect(Collector.of(
+                ArrayList::new,
+                List::add,
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH));
+    }
+
+    @Benchmark
+    public Map<String, List<Person>> groupingByHashMapMerge(PersonState state) {
+        return state.stream().collect(Collector.of(
+                HashMap<String, List<Person>>::new,
+                (map, person) -> map.computeIfAbsent(person.getCountry(), k -> new ArrayList<>()).add(person),
+                (left, right) -> {
+                    right.forEach((k, v) -> left.merge(k, v, (list1, list2) -> {
+                        list1.addAll(list2);
+                        return list1;
+                    }));
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH));
+    }
+
+    @Benchmark
+    public Map<String, String> toConcurrentMap(PersonState state) {
+        return state.stream().collect(Collector.of(
+                ConcurrentHashMap<String, String>::new,
+                (map, person) -> map.put(person.getName(), person.getCountry()),
+                (left, right) -> {
+                    left.putAll(right);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.CONCURRENT));
+    }
+}
@@ -0,0 +1,81 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.query.IndexedPersonCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.qiuguan.stream.api.demo.query.PersonFields.AGE;
+import static com.qiuguan.stream.api.demo.query.PersonFields.COUNTRY;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 10:31:47 Monday
+ * <p>
+ * 过滤、匹配查询在 List 上的全表扫描和 {@link IndexedPersonCollection} 走索引的对比。
+ * 索引能完整回答的查询和行数无关，单位用微秒
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexedPersonCollectionBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Person> persons;
+
+    private IndexedPersonCollection indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persons = PersonDataset.generate(size);
+        indexed = new IndexedPersonCollection(persons);
+    }
+
+    @Benchmark
+    public boolean streamAnyMatchAgeOver100() {
+        return persons.stream().anyMatch(p -> p.getAge() > 100);
+    }
+
+    @Benchmark
+    public boolean indexedAnyMatchAgeOver100() {
+        return indexed.anyMatch(AGE.gt(100));
+    }
+
+    @Benchmark
+    public long streamCountAgeOver30() {
+        return persons.stream().filter(p -> p.getAge() > 30).count();
+    }
+
+    @Benchmark
+    public long indexedCountAgeOver30() {
+        return indexed.count(AGE.gt(30));
+    }
+
+    @Benchmark
+    public long streamCountChineseAdults() {
+        return persons.stream().filter(p -> "中国".equals(p.getCountry()) && p.getAge() >= 18 && p.getAge() <= 60).count();
+    }
+
+    @Benchmark
+    public long indexedCountChineseAdults() {
+        return indexed.count(COUNTRY.eq("中国").and(AGE.between(18, 60)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.collector.FastCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:25:41 Sunday
+ * <p>
+ * 对应 {@link com.qiuguan.stream.api.demo.create.MiddleOperationDemo} 中的排序、过滤、去重
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiddleOperationBenchmark {
+
+    @Benchmark
+    public List<Person> sortedByAge(PersonState state) {
+        return state.stream()
+                .sorted(Comparator.comparing(Person::getAge))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Person> sortedByName(PersonState state) {
+        return state.stream()
+                .sorted(Comparator.comparing(Person::getName, Comparator.naturalOrder()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Person> sortedByAgeLimit100(PersonState state) {
+        return state.stream()
+                .sorted(Comparator.comparing(Person::getAge))
+                .limit(100)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Person> topKByAge100(PersonState state) {
+        return state.stream().collect(FastCollectors.topKStable(100, Comparator.comparing(Person::getAge)));
+    }
+
+    @Benchmark
+    public List<Person> topKByIntAge100(PersonState state) {
+        return state.stream().collect(FastCollectors.topKByInt(100, Person::getAge));
+    }
+
+    @Benchmark
+    public List<Person> filterAge(PersonState state) {
+        return state.stream()
+                .filter(person -> person.getAge() > 30)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Person> distinct(PersonState state) {
+        return state.stream()
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.parallel.OrderedForEach;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 11:34:08 Monday
+ * <p>
+ * 上游 map 有一定计算量时，并行流的 forEach、forEachOrdered 和 {@link OrderedForEach} 的吞吐对比。
+ * 目标是有序输出的同时接近 forEach，windowSize 越小背压越早触发
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderedForEachBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"64", "4096"})
+    public int windowSize;
+
+    private Stream<Integer> source() {
+        return IntStream.range(0, size).boxed().parallel().map(i -> {
+            Blackhole.consumeCPU(100);
+            return i;
+        });
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        source().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachOrdered(Blackhole blackhole) {
+        source().forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public OrderedForEach.Metrics orderedParallelForEach(Blackhole blackhole) {
+        return OrderedForEach.orderedParallelForEach(source(), blackhole::consume, windowSize);
+    }
+}
@@ -0,0 +1,40 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:12:30 Sunday
+ * <p>
+ * 基准测试用的数据集，固定随机种子，保证每次运行、每个版本之间的数据完全一致，结果才有可比性。
+ * 姓名池刻意做得比数据量小，这样 distinct、toMap 的合并函数才会真正被触发。
+ */
+public final class PersonDataset {
+
+    public static final String[] COUNTRIES = {"中国", "美国", "日本", "澳大利亚", "英国", "法国", "德国", "韩国"};
+
+    public static final String[] SEXES = {"男", "女"};
+
+    private static final long SEED = 20240709L;
+
+    private PersonDataset() {
+    }
+
+    public static List<Person> generate(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int namePool = Math.max(16, size / 4);
+        List<Person> persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            persons.add(new Person(
+                    "person-" + random.nextInt(namePool),
+                    random.nextInt(1, 100),
+                    SEXES[random.nextInt(SEXES.length)],
+                    COUNTRIES[random.nextInt(COUNTRIES.length)]));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,80 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.query.PersonQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.qiuguan.stream.api.demo.query.PersonFields.AGE;
+import static com.qiuguan.stream.api.demo.query.PersonFields.COUNTRY;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:52:19 Monday
+ * <p>
+ * 同一个查询的三种写法：Stream 流水线、{@link PersonQuery} 编译出的融合循环、手写循环。
+ * 串行执行，所以不使用 {@link PersonState} 的 parallel 参数。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Person> persons;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persons = PersonDataset.generate(size);
+    }
+
+    @Benchmark
+    public long streamSumAgeOver30() {
+        return persons.stream().filter(p -> p.getAge() > 30).mapToLong(Person::getAge).sum();
+    }
+
+    @Benchmark
+    public long querySumAgeOver30() {
+        return PersonQuery.from(persons).where(AGE.gt(30)).select(AGE).sum();
+    }
+
+    @Benchmark
+    public long loopSumAgeOver30() {
+        long sum = 0;
+        for (int i = 0, n = persons.size(); i < n; i++) {
+            Person person = persons.get(i);
+            if (person.getAge() > 30) {
+                sum += person.getAge();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long streamCountChineseAdults() {
+        return persons.stream().filter(p -> "中国".equals(p.getCountry()) && p.getAge() >= 18 && p.getAge() <= 60).count();
+    }
+
+    @Benchmark
+    public long queryCountChineseAdults() {
+        return PersonQuery.from(persons).where(COUNTRY.eq("中国").and(AGE.between(18, 60))).count();
+    }
+}
@@ -0,0 +1,39 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:18:02 Sunday
+ * <p>
+ * 所有基准共用的数据状态：数据量从 1K 到 10M，每个数据量分别跑串行和并行两种模式。
+ * 只想跑一部分时可以在命令行覆盖参数，例如：-p size=1000,100000 -p parallel=true
+ */
+@State(Scope.Benchmark)
+public class PersonState {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    public List<Person> persons;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persons = PersonDataset.generate(size);
+    }
+
+    public Stream<Person> stream() {
+        return parallel ? persons.parallelStream() : persons.stream();
+    }
+}
@@ -0,0 +1,63 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.table.PersonTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 11:48:22 Sunday
+ * <p>
+ * 列式 {@link PersonTable} 上的聚合，和 {@link TerminalOperationBenchmark} 中 List&lt;Person&gt; 的同名基准对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonTableBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private PersonTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = PersonTable.of(PersonDataset.generate(size));
+    }
+
+    @Benchmark
+    public int sumAge() {
+        return table.ages().sum();
+    }
+
+    @Benchmark
+    public int parallelSumAge() {
+        return table.ages().parallel().sum();
+    }
+
+    @Benchmark
+    public Map<String, Long> groupingByCountryCounting() {
+        return table.countByCountry();
+    }
+
+    @Benchmark
+    public PersonTable filterAge() {
+        return table.filterAge(age -> age > 30);
+    }
+}
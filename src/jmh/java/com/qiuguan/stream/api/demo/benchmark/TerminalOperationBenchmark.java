@@ -0,0 +1,124 @@
+package com.qiuguan.stream.api.demo.benchmark;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.collector.FastCollectors;
+import com.qiuguan.stream.api.demo.collector.IntCollectors;
+import com.qiuguan.stream.api.demo.collector.IntStatistics;
+import com.qiuguan.stream.api.demo.table.PersonTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 10:31:15 Sunday
+ * <p>
+ * 对应 {@link com.qiuguan.stream.api.demo.create.TerminalOperationDemo} 中的收集与聚合
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TerminalOperationBenchmark {
+
+    @Benchmark
+    public Map<String, List<Person>> groupingByCountry(PersonState state) {
+        return state.stream().collect(Collectors.groupingBy(Person::getCountry));
+    }
+
+    @Benchmark
+    public Map<String, List<Person>> groupingByConcurrentCountry(PersonState state) {
+        return state.stream().collect(Collectors.groupingByConcurrent(Person::getCountry));
+    }
+
+    @Benchmark
+    public Map<String, List<Person>> fastGroupingByConcurrentCountry(PersonState state) {
+        return state.stream().collect(FastCollectors.groupingByConcurrent(Person::getCountry));
+    }
+
+    @Benchmark
+    public Map<String, Long> groupingByCountryCounting(PersonState state) {
+        return state.stream().collect(Collectors.groupingBy(Person::getCountry, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<String, Long> countingByEncodedCountry(PersonState state, EncodedState encoded) {
+        IntStream codes = encoded.table.countryCodes();
+        return FastCollectors.countingByEncoded(encoded.table.countryDictionary(), state.parallel ? codes.parallel() : codes);
+    }
+
+    @Benchmark
+    public Map<String, String> toMapWithMerge(PersonState state) {
+        return state.stream().collect(Collectors.toMap(Person::getName, Person::getCountry, (k1, k2) -> k2));
+    }
+
+    @Benchmark
+    public Map<String, String> toMapConcurrentWithMerge(PersonState state) {
+        return state.stream().collect(FastCollectors.toMapConcurrent(Person::getName, Person::getCountry, (k1, k2) -> k2));
+    }
+
+    @Benchmark
+    public Map<String, Double> averagingAgeByCountry(PersonState state) {
+        return state.stream().collect(Collectors.groupingBy(Person::getCountry, Collectors.averagingInt(Person::getAge)));
+    }
+
+    @Benchmark
+    public Map<String, Double> averagingAgeByCountryIntCollector(PersonState state) {
+        return state.stream().collect(IntCollectors.groupingByInt(Person::getCountry, Person::getAge, IntCollectors.averaging()));
+    }
+
+    @Benchmark
+    public IntStatistics statisticsAge(PersonState state) {
+        return state.stream().collect(IntCollectors.summarizing(Person::getAge));
+    }
+
+    @Benchmark
+    public Map<Boolean, List<Person>> partitioningByAge(PersonState state) {
+        return state.stream().collect(Collectors.partitioningBy(person -> person.getAge() > 30));
+    }
+
+    @Benchmark
+    public String joiningNames(PersonState state) {
+        return state.stream().map(Person::getName).collect(Collectors.joining("#"));
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summarizingAge(PersonState state) {
+        return state.stream().collect(Collectors.summarizingInt(Person::getAge));
+    }
+
+    @Benchmark
+    public int sumAge(PersonState state) {
+        return state.stream().mapToInt(Person::getAge).sum();
+    }
+
+    /**
+     * 同一份数据写入 {@link PersonTable}，country 在写入时就已经字典编码，计时部分每行只是读取编码、long[] 自增
+     */
+    @State(Scope.Benchmark)
+    public static class EncodedState {
+
+        PersonTable table;
+
+        @Setup(Level.Trial)
+        public void setUp(PersonState state) {
+            table = PersonTable.of(state.persons);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.qiuguan.stream.api.demo.approx;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 03:08:26 Monday
+ * <p>
+ * {@code distinct()} 和 {@code groupingBy(..., counting())} 要把每个不同的值都放进 HashSet/HashMap，
+ * 不同值的个数很大(比如姓名)时会耗尽内存。这里的近似算子内存只和误差参数有关：
+ * <ul>
+ *     <li>{@link #approxDistinctCount}：HyperLogLog，代替 {@code distinct().count()}</li>
+ *     <li>{@link #approxFrequencies}：Count-Min 草图，代替 {@code groupingBy(..., counting())} 的按值查次数</li>
+ *     <li>{@link #heavyHitters}：出现次数最多的 k 个值</li>
+ *     <li>{@link #distinctProbabilistic}：布隆过滤器去重的中间操作，代替 {@code distinct()}</li>
+ * </ul>
+ * 收集器在并行流中每个叶子任务各有一份状态，合并时按各自的规则合并，结果和串行一致。
+ * <pre>
+ *     long names = persons.parallelStream().map(Person::getName).collect(ApproxOperators.approxDistinctCount(0.01));
+ * </pre>
+ */
+public final class ApproxOperators {
+
+    private ApproxOperators() {
+    }
+
+    /**
+     * 不同值的个数，relativeError 是相对标准误差，比如 0.01 只占 16KB
+     */
+    public static <T> Collector<T, ?, Long> approxDistinctCount(double relativeError) {
+        int precision = HyperLogLog.precisionFor(relativeError);
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                HyperLogLog::add,
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 每个值出现次数的草图，用 {@link CountMinSketch#estimate} 查询；误差不超过 epsilon * 元素总数的概率为 1 - delta
+     */
+    public static <T> Collector<T, ?, CountMinSketch> approxFrequencies(double epsilon, double delta) {
+        int width = CountMinSketch.widthFor(epsilon);
+        int depth = CountMinSketch.depthFor(delta);
+        return Collector.of(
+                () -> new CountMinSketch(width, depth),
+                CountMinSketch::add,
+                CountMinSketch::merge,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 出现次数最多的 k 个值和它们的估计次数，按次数从多到少排列
+     */
+    public static <T> Collector<T, ?, Map<T, Long>> heavyHitters(int k, double epsilon, double delta) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        int width = CountMinSketch.widthFor(epsilon);
+        int depth = CountMinSketch.depthFor(delta);
+        return Collector.of(
+                () -> new HeavyHitters<T>(k, width, depth),
+                HeavyHitters::add,
+                HeavyHitters::merge,
+                HeavyHitters::top,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 用布隆过滤器去重：内存固定，不会输出重复的值，但会以约 fpp 的概率把没见过的值当成重复丢掉。
+     * 判断的是值的哈希，不依赖元素的 equals/hashCode 之外的东西；并行流中保留的是哪一次出现不确定。
+     */
+    public static <T> Stream<T> distinctProbabilistic(Stream<T> stream, long expectedInsertions, double fpp) {
+        Objects.requireNonNull(stream, "stream");
+        BloomFilter seen = new BloomFilter(expectedInsertions, fpp);
+        return stream.filter(seen::put);
+    }
+}
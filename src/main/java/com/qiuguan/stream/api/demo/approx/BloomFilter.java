@@ -0,0 +1,91 @@
+package com.qiuguan.stream.api.demo.approx;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 02:55:12 Monday
+ * <p>
+ * 线程安全的布隆过滤器。位数组和哈希函数个数按预计元素个数和误判率计算，内存固定；
+ * 只会把没见过的值误判为见过(概率约为 fpp)，不会把见过的值判为没见过。
+ * <p>
+ * 位数组是 AtomicLongArray，多个线程可以同时写；{@link #put} 的“检查 + 置位”按哈希分段加锁，
+ * 同一个值在两个线程上同时 put 时只有一个返回 true。
+ */
+public final class BloomFilter {
+
+    private static final int LOCKS = 64;
+
+    private final AtomicLongArray words;
+
+    private final long bits;
+
+    private final int hashes;
+
+    private final Object[] locks = new Object[LOCKS];
+
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1: " + fpp);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long wordCount = (bits + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bloom filter too large: " + bits + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bits = wordCount << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) this.bits / expectedInsertions * Math.log(2)));
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public boolean mightContain(Object value) {
+        long hash = Hashing.hash64(value);
+        for (int i = 0; i < hashes; i++) {
+            long bit = bit(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 放入一个值，之前(可能)没有见过时返回 true
+     */
+    public boolean put(Object value) {
+        long hash = Hashing.hash64(value);
+        synchronized (locks[(int) (hash >>> 58)]) {
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = bit(hash, i);
+                long mask = 1L << bit;
+                long previous = words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+                changed |= (previous & mask) == 0;
+            }
+            return changed;
+        }
+    }
+
+    private long bit(long hash, int i) {
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        return Math.floorMod(h1 + i * h2, bits);
+    }
+
+    public BloomFilter merge(BloomFilter other) {
+        if (other.bits != bits || other.hashes != hashes) {
+            throw new IllegalArgumentException("cannot merge bloom filters of different sizes");
+        }
+        for (int i = 0; i < words.length(); i++) {
+            long bitsOfOther = other.words.get(i);
+            words.getAndAccumulate(i, bitsOfOther, (word, m) -> word | m);
+        }
+        return this;
+    }
+}
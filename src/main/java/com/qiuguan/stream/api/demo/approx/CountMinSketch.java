@@ -0,0 +1,101 @@
+package com.qiuguan.stream.api.demo.approx;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 02:29:05 Monday
+ * <p>
+ * 频率估计。depth 行、每行 width 个计数器，每个元素在每行哈希到一个计数器上加一，估计值取各行中的最小值。
+ * 估计值只会偏大不会偏小：以 1 - delta 的概率，误差不超过 epsilon * 总次数。
+ * 内存是 depth * width 个 long，和不同值的个数无关；相同尺寸的两个草图逐个计数器相加即可合并。
+ */
+public final class CountMinSketch {
+
+    private final int width;
+
+    private final int depth;
+
+    private final long[] counters;
+
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[Math.multiplyExact(width, depth)];
+    }
+
+    /**
+     * 误差 epsilon * 总次数、置信度 1 - delta，比如 (0.001, 0.01) 是 2719 x 5 个计数器，约 106KB
+     */
+    public static CountMinSketch withError(double epsilon, double delta) {
+        return new CountMinSketch(widthFor(epsilon), depthFor(delta));
+    }
+
+    static int widthFor(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be between 0 and 1: " + epsilon);
+        }
+        return (int) Math.ceil(Math.E / epsilon);
+    }
+
+    static int depthFor(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("delta must be between 0 and 1: " + delta);
+        }
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    public void add(Object value) {
+        add(value, 1);
+    }
+
+    public void add(Object value, long count) {
+        addHash(Hashing.hash64(value), count);
+    }
+
+    void addHash(long hash, long count) {
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(Object value) {
+        return estimateHash(Hashing.hash64(value));
+    }
+
+    long estimateHash(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + column(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * 双重哈希：第 row 行的位置是 h1 + row * h2，不需要 depth 个独立的哈希函数
+     */
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("cannot merge " + other.width + " x " + other.depth + " into " + width + " x " + depth);
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+        return this;
+    }
+}
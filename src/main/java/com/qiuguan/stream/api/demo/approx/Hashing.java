@@ -0,0 +1,45 @@
+package com.qiuguan.stream.api.demo.approx;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 02:10:18 Monday
+ * <p>
+ * 概率数据结构共用的 64 位哈希。hashCode 只有 32 位，几千万个不同的值就会有大量碰撞，
+ * 所以字符串按字符重新算 64 位哈希，其他对象才退回到 hashCode。
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long hash64(Object value) {
+        if (value == null) {
+            return 0x6A09E667F3BCC909L;
+        }
+        if (value instanceof CharSequence) {
+            CharSequence chars = (CharSequence) value;
+            //FNV-1a
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                h = (h ^ chars.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+        if (value instanceof Long) {
+            return mix((Long) value);
+        }
+        return mix(value.hashCode());
+    }
+
+    /**
+     * MurmurHash3 的 fmix64，让每个输入位都影响每个输出位
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,112 @@
+package com.qiuguan.stream.api.demo.approx;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 02:41:30 Monday
+ * <p>
+ * 出现次数最多的 k 个值：{@link CountMinSketch} 负责计数，旁边只保留 k 个候选值。
+ * 新值的估计次数超过候选中最小的那个时替换它，所以内存是草图加 k 个元素，和不同值的个数无关。
+ * 合并时先合并草图，再用合并后的草图重新估计两边候选的次数，取前 k 个。
+ */
+public final class HeavyHitters<T> {
+
+    private final int k;
+
+    private final CountMinSketch sketch;
+
+    private final Map<T, Long> candidates;
+
+    private T minCandidate;
+
+    private long minCount = Long.MAX_VALUE;
+
+    public HeavyHitters(int k, double epsilon, double delta) {
+        this(k, CountMinSketch.widthFor(epsilon), CountMinSketch.depthFor(delta));
+    }
+
+    HeavyHitters(int k, int width, int depth) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.sketch = new CountMinSketch(width, depth);
+        this.candidates = new HashMap<>(k * 2);
+    }
+
+    public void add(T value) {
+        long hash = Hashing.hash64(value);
+        sketch.addHash(hash, 1);
+        offer(value, sketch.estimateHash(hash));
+    }
+
+    private void offer(T value, long estimate) {
+        if (candidates.containsKey(value)) {
+            candidates.put(value, estimate);
+            if (value == minCandidate || (value != null && value.equals(minCandidate))) {
+                //最小的候选变大了，重新找最小值
+                findMin();
+            }
+            return;
+        }
+        if (candidates.size() < k) {
+            candidates.put(value, estimate);
+            if (estimate < minCount) {
+                minCandidate = value;
+                minCount = estimate;
+            }
+            return;
+        }
+        if (estimate > minCount) {
+            candidates.remove(minCandidate);
+            candidates.put(value, estimate);
+            findMin();
+        }
+    }
+
+    private void findMin() {
+        minCount = Long.MAX_VALUE;
+        minCandidate = null;
+        for (Map.Entry<T, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() < minCount) {
+                minCount = entry.getValue();
+                minCandidate = entry.getKey();
+            }
+        }
+    }
+
+    public HeavyHitters<T> merge(HeavyHitters<T> other) {
+        sketch.merge(other.sketch);
+        List<T> values = new ArrayList<>(candidates.keySet());
+        values.addAll(other.candidates.keySet());
+        candidates.clear();
+        minCandidate = null;
+        minCount = Long.MAX_VALUE;
+        for (T value : values) {
+            if (!candidates.containsKey(value)) {
+                offer(value, sketch.estimate(value));
+            }
+        }
+        return this;
+    }
+
+    public CountMinSketch sketch() {
+        return sketch;
+    }
+
+    /**
+     * 按估计次数从多到少排列的前 k 个值
+     */
+    public Map<T, Long> top() {
+        Map<T, Long> result = new LinkedHashMap<>();
+        candidates.entrySet().stream()
+                .sorted(Map.Entry.<T, Long>comparingByValue().reversed())
+                .forEachOrdered(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+}
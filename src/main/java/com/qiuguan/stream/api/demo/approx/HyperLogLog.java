@@ -0,0 +1,92 @@
+package com.qiuguan.stream.api.demo.approx;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 02:16:47 Monday
+ * <p>
+ * 基数(不同值个数)估计。2^p 个寄存器，每个只记录落到它上面的哈希值的最大前导零个数，
+ * 内存固定为 2^p 字节，和不同值的个数无关；相对标准误差约为 1.04 / sqrt(2^p)。
+ * <p>
+ * 两个 HyperLogLog 的合并就是寄存器逐个取最大值，结果和把所有元素放进同一个里完全一样。
+ */
+public final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+
+    static final int MAX_PRECISION = 18;
+
+    private final int precision;
+
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * 按目标相对误差选精度，比如 0.01 对应 p = 14，占 16KB
+     */
+    public static HyperLogLog withRelativeError(double relativeError) {
+        return new HyperLogLog(precisionFor(relativeError));
+    }
+
+    static int precisionFor(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relativeError must be between 0 and 1: " + relativeError);
+        }
+        int precision = (int) Math.ceil(2 * Math.log(1.04 / relativeError) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(Object value) {
+        addHash(Hashing.hash64(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        //剩余的位里第一个 1 的位置，末尾补一个 1 防止全 0
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0d / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            //基数很小时寄存器大多为 0，用线性计数更准
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
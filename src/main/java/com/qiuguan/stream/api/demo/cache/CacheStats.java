@@ -0,0 +1,31 @@
+package com.qiuguan.stream.api.demo.cache;
+
+import lombok.Value;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 08:20:15 Monday
+ * <p>
+ * {@link MemoizedQueries} 的统计快照
+ */
+@Value
+public class CacheStats {
+
+    long hitCount;
+
+    long missCount;
+
+    /**
+     * 命中了别的线程正在计算的条目，等待它算完而不是自己再算一遍
+     */
+    long sharedLoadCount;
+
+    long evictionCount;
+
+    long size;
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0d : (double) hitCount / requests;
+    }
+}
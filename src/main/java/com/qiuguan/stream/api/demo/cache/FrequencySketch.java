@@ -0,0 +1,74 @@
+package com.qiuguan.stream.api.demo.cache;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 08:12:40 Monday
+ * <p>
+ * TinyLFU 的访问频率草图：4 位计数器的 Count-Min，每个 long 放 16 个计数器，计数到 15 封顶。
+ * 每个条目对应一个 long(容量向上取 2 的幂)，计数器足够多，不同的 key 很少挤在同一个计数器上。
+ * 累计记录次数达到 10 倍容量时所有计数器减半，让过去的热点逐渐冷下来。
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int DEPTH = 4;
+
+    private final long[] table;
+
+    private final int tableMask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        this.table = new long[(int) Math.min(1 << 30, Math.max(16, Long.highestOneBit(Math.max(1, maximumSize) - 1) << 1))];
+        this.tableMask = table.length - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(1, maximumSize));
+    }
+
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = index(hash, i);
+            int offset = offset(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = index(hash, i);
+            int offset = offset(hash, i);
+            if (((table[index] >>> offset) & 0xF) != 0xF) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int index(int hash, int i) {
+        int h = (hash + i * 0x9E3779B9) * 0x85EBCA6B;
+        return (h ^ (h >>> 16)) & tableMask;
+    }
+
+    /**
+     * long 中第几个 4 位计数器，每一行用不同的位置
+     */
+    private static int offset(int hash, int i) {
+        return (((hash >>> (i << 3)) & 0x3) + (i << 2)) << 2;
+    }
+}
@@ -0,0 +1,412 @@
+package com.qiuguan.stream.api.demo.cache;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 08:38:52 Monday
+ * <p>
+ * 对同一份不可变数据反复执行的查询结果做缓存，比如看板每秒都在同一个 {@code List.of(...)} 快照上跑
+ * {@code groupingBy(Person::getCountry)}。缓存的 key 是：
+ * <ul>
+ *     <li>数据源的对象身份(==)，用弱引用持有，数据源被回收后对应的条目自动清除</li>
+ *     <li>版本号，数据源可变时由调用方在每次修改后递增，不可变的快照用 0</li>
+ *     <li>查询描述，lambda 没有可比较的相等性，所以由调用方给出一个规范的描述，比如 "groupingBy(country)"</li>
+ * </ul>
+ * 容量满了按 W-TinyLFU 淘汰：新条目先进 1% 的窗口 LRU，被挤出窗口时和主区(SLRU)里最该淘汰的条目比较
+ * {@link FrequencySketch} 记录的访问频率，频率高的留下，一次性的查询不会把热点挤掉。
+ * <p>
+ * 命中不拿锁：访问记录先写进按线程分条的有损缓冲区({@link ReadBuffer})，缓冲区满了用 tryLock 批量回放到淘汰策略，
+ * 拿不到锁就跳过，由持有锁的线程(或者下一次未命中)回放。缓冲区满时丢掉的访问记录只影响淘汰的精度。
+ * <p>
+ * 同一个 key 同时有多个线程未命中时，只有一个线程计算，其余线程等待并共享结果。
+ * 缓存的结果在调用方之间共享，不要修改它。
+ * <pre>
+ *     MemoizedQueries cache = MemoizedQueries.withMaximumSize(1000);
+ *     Map&lt;String, List&lt;Person&gt;&gt; byCountry = cache.collect(persons, "groupingBy(country)", Collectors.groupingBy(Person::getCountry));
+ * </pre>
+ */
+public final class MemoizedQueries {
+
+    private final long maximumSize;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final ConcurrentHashMap<Key, Node> map = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /**
+     * 淘汰策略的状态(三个队列和频率草图)都由这把锁保护
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final ReadBuffer<Node> readBuffer = new ReadBuffer<>();
+
+    private final FrequencySketch sketch;
+
+    private final AccessOrder window = new AccessOrder();
+
+    private final AccessOrder probation = new AccessOrder();
+
+    private final AccessOrder protectedQueue = new AccessOrder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder sharedLoads = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private MemoizedQueries(long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (long) ((maximumSize - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public static MemoizedQueries withMaximumSize(long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        return new MemoizedQueries(maximumSize);
+    }
+
+    /**
+     * 不可变数据源上的收集，相当于 {@code source.stream().collect(collector)}
+     */
+    public <T, R> R collect(Collection<T> source, Object descriptor, Collector<? super T, ?, R> collector) {
+        return collect(source, 0, descriptor, collector);
+    }
+
+    public <T, R> R collect(Collection<T> source, long version, Object descriptor, Collector<? super T, ?, R> collector) {
+        Objects.requireNonNull(collector, "collector");
+        return get(source, version, descriptor, () -> source.stream().collect(collector));
+    }
+
+    /**
+     * 通用版本：未命中时调用 loader 计算，loader 抛出的异常原样抛给所有等待的调用方，结果不会被缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R get(Object source, long version, Object descriptor, Supplier<R> loader) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(loader, "loader");
+        expungeCollected();
+
+        Key lookup = new Key(source, version, descriptor, null);
+        Node node = map.get(lookup);
+        if (node != null) {
+            return (R) hit(node);
+        }
+        Node created = new Node(new Key(source, version, descriptor, collected));
+        node = map.putIfAbsent(created.key, created);
+        if (node != null) {
+            return (R) hit(node);
+        }
+        misses.increment();
+        R value;
+        try {
+            value = loader.get();
+        } catch (Throwable e) {
+            //偷偷抛出的受检异常也要在这里处理，否则 future 永远不会完成，后来的调用方会一直等下去
+            map.remove(created.key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+        created.future.complete(value);
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            sketch.increment(created.key.hash);
+            if (map.get(created.key) == created) {
+                //期间可能已经被 invalidate 掉
+                admit(created);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return value;
+    }
+
+    private Object hit(Node node) {
+        CompletableFuture<Object> future = node.future;
+        if (future.isDone()) {
+            hits.increment();
+        } else {
+            sharedLoads.increment();
+        }
+        if (readBuffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(Object source) {
+        map.forEach((key, node) -> {
+            if (key.get() == source) {
+                remove(node, false);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        map.values().forEach(node -> remove(node, false));
+    }
+
+    public long size() {
+        return map.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), sharedLoads.sum(), evictions.sum(), map.size());
+    }
+
+    /**
+     * 新条目进入窗口，窗口满了把窗口最久未访问的条目放进主区的试用队列，主区满了再和试用队列最久未访问的条目比较频率
+     */
+    private void admit(Node node) {
+        window.addLast(node, Queue.WINDOW);
+        if (window.size > windowMaximum) {
+            Node candidate = window.first();
+            window.remove(candidate);
+            probation.addLast(candidate, Queue.PROBATION);
+            if (map.size() > maximumSize) {
+                Node victim = probation.first();
+                if (victim == candidate) {
+                    evict(candidate);
+                } else {
+                    evict(sketch.frequency(candidate.key.hash) > sketch.frequency(victim.key.hash) ? victim : candidate);
+                }
+            }
+        }
+        while (map.size() > maximumSize && evictOne()) {
+            //窗口很小或者条目都在保护区时继续淘汰
+        }
+    }
+
+    private boolean evictOne() {
+        Node victim = probation.first() != null ? probation.first()
+                : protectedQueue.first() != null ? protectedQueue.first() : window.first();
+        if (victim == null) {
+            return false;
+        }
+        evict(victim);
+        return true;
+    }
+
+    private void drainReadBuffer() {
+        readBuffer.drainTo(this::onRead);
+    }
+
+    private void onRead(Node node) {
+        sketch.increment(node.key.hash);
+        onAccess(node);
+    }
+
+    /**
+     * 回放时条目可能已经被删除(queue 为 null)，这时什么也不做
+     */
+    private void onAccess(Node node) {
+        switch (node.queue == null ? Queue.NONE : node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                //试用区再次命中，升入保护区；保护区满了把最久未访问的降回试用区
+                probation.remove(node);
+                protectedQueue.addLast(node, Queue.PROTECTED);
+                if (protectedQueue.size > protectedMaximum) {
+                    Node demoted = protectedQueue.first();
+                    protectedQueue.remove(demoted);
+                    probation.addLast(demoted, Queue.PROBATION);
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                //还在计算中尚未进入任何队列，或者已经被删除
+                break;
+        }
+    }
+
+    private void evict(Node node) {
+        remove(node, true);
+    }
+
+    private void remove(Node node, boolean eviction) {
+        evictionLock.lock();
+        try {
+            if (node.queue != null) {
+                queueOf(node).remove(node);
+            }
+            if (map.remove(node.key, node) && eviction) {
+                evictions.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private AccessOrder queueOf(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedQueue;
+        }
+    }
+
+    private void expungeCollected() {
+        Object reference;
+        while ((reference = collected.poll()) != null) {
+            Node node = map.get((Key) reference);
+            if (node != null) {
+                remove(node, false);
+            }
+        }
+    }
+
+    private enum Queue {
+        NONE, WINDOW, PROBATION, PROTECTED
+    }
+
+    /**
+     * 弱引用数据源 + 版本 + 查询描述。数据源被回收后 key 只和自己相等
+     */
+    private static final class Key extends WeakReference<Object> {
+
+        final int hash;
+
+        final long version;
+
+        final Object descriptor;
+
+        Key(Object source, long version, Object descriptor, ReferenceQueue<Object> queue) {
+            super(source, queue);
+            this.version = version;
+            this.descriptor = descriptor;
+            this.hash = (System.identityHashCode(source) * 31 + Long.hashCode(version)) * 31 + descriptor.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            Object source = get();
+            return source != null && source == other.get() && version == other.version && descriptor.equals(other.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Node {
+
+        final Key key;
+
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Queue queue;
+
+        Node previous;
+
+        Node next;
+
+        Node(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的双向链表，first 是最久未访问的
+     */
+    private static final class AccessOrder {
+
+        private Node head;
+
+        private Node tail;
+
+        long size;
+
+        Node first() {
+            return head;
+        }
+
+        void addLast(Node node, Queue queue) {
+            node.queue = queue;
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            if (tail != node) {
+                Queue queue = node.queue;
+                remove(node);
+                addLast(node, queue);
+            }
+        }
+    }
+}
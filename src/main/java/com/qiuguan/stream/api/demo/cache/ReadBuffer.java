@@ -0,0 +1,89 @@
+package com.qiuguan.stream.api.demo.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 15:04:17 Monday
+ * <p>
+ * 命中时记录访问用的有损缓冲区，按线程分条，每条是一个固定大小的环。写入只有一次 CAS，
+ * 条满了或者 CAS 失败就直接丢掉这次记录，只影响淘汰的精度，不影响命中的结果。
+ * 回放({@link #drainTo})由持有淘汰锁的线程执行。
+ */
+final class ReadBuffer<E> {
+
+    private static final int SIZE = 16;
+
+    private static final int MASK = SIZE - 1;
+
+    private final Stripe<E>[] stripes;
+
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        this.stripes = (Stripe<E>[]) new Stripe<?>[count];
+        this.stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * @return 当前线程所在的条已经满了，调用方应该尝试回放
+     */
+    boolean offer(E e) {
+        int h = Thread.currentThread().hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & stripeMask].offer(e);
+    }
+
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static final class Stripe<E> {
+
+        private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(SIZE);
+
+        private final AtomicLong writes = new AtomicLong();
+
+        /**
+         * 只由回放的线程修改
+         */
+        private volatile long reads;
+
+        boolean offer(E e) {
+            long head = reads;
+            long tail = writes.get();
+            if (tail - head >= SIZE) {
+                return true;
+            }
+            if (writes.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & MASK), e);
+                return tail + 1 - head >= SIZE;
+            }
+            return false;
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = reads;
+            long tail = writes.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & MASK);
+                E e = slots.get(index);
+                if (e == null) {
+                    //写入方已经拿到了位置、还没放进来，下次再回放
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(e);
+            }
+            reads = head;
+        }
+    }
+}
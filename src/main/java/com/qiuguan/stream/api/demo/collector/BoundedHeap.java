@@ -0,0 +1,140 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 15:48:09 Sunday
+ * <p>
+ * 容量为 k 的大顶堆，堆顶是当前保留的 k 个元素里"最大"的那个，新元素比堆顶小才会替换它，
+ * 所以最终留下的就是最小的 k 个，内存 O(k)。
+ * <p>
+ * 每个元素带一个遇到序号 seq，stable 模式下比较相等时按 seq 决定先后，保证和 {@code sorted().limit(k)} 结果完全一致。
+ * seen 记录累加过的元素总数(包括被淘汰的)，合并时右侧的序号整体偏移 seen，保证并行流里序号仍然是全局遇到顺序。
+ */
+final class BoundedHeap<T> {
+
+    private final int k;
+
+    private final Comparator<? super T> comparator;
+
+    private final boolean stable;
+
+    private final Object[] items;
+
+    private final long[] seqs;
+
+    private int size;
+
+    private long seen;
+
+    BoundedHeap(int k, Comparator<? super T> comparator, boolean stable) {
+        this.k = k;
+        this.comparator = comparator;
+        this.stable = stable;
+        this.items = new Object[k];
+        this.seqs = new long[k];
+    }
+
+    void add(T item) {
+        offer(item, seen++);
+    }
+
+    BoundedHeap<T> merge(BoundedHeap<T> right) {
+        long offset = seen;
+        for (int i = 0; i < right.size; i++) {
+            offer(right.item(i), right.seqs[i] + offset);
+        }
+        seen += right.seen;
+        return this;
+    }
+
+    private void offer(T item, long seq) {
+        if (size < k) {
+            items[size] = item;
+            seqs[size] = seq;
+            siftUp(size++);
+        } else if (k > 0 && compare(item, seq, item(0), seqs[0]) < 0) {
+            items[0] = item;
+            seqs[0] = seq;
+            siftDown(0);
+        }
+    }
+
+    private int compare(T a, long seqA, T b, long seqB) {
+        int c = comparator.compare(a, b);
+        return c != 0 || !stable ? c : Long.compare(seqA, seqB);
+    }
+
+    private int compareAt(int i, int j) {
+        return compare(item(i), seqs[i], item(j), seqs[j]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compareAt(i, parent) <= 0) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && compareAt(left, largest) > 0) {
+                largest = left;
+            }
+            if (right < size && compareAt(right, largest) > 0) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        long seq = seqs[i];
+        seqs[i] = seqs[j];
+        seqs[j] = seq;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int i) {
+        return (T) items[i];
+    }
+
+    /**
+     * 依次弹出堆顶，得到从小到大排好序的结果，堆本身被清空
+     */
+    List<T> drainSorted() {
+        Object[] sorted = new Object[size];
+        while (size > 0) {
+            sorted[size - 1] = items[0];
+            size--;
+            items[0] = items[size];
+            seqs[0] = seqs[size];
+            items[size] = null;
+            siftDown(0);
+        }
+        List<T> result = new ArrayList<>(sorted.length);
+        for (Object item : sorted) {
+            @SuppressWarnings("unchecked")
+            T t = (T) item;
+            result.add(t);
+        }
+        return result;
+    }
+}
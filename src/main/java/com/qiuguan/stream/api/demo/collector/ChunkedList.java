@@ -0,0 +1,162 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 12:10:05 Sunday
+ * <p>
+ * 分块的只追加列表：元素存放在一串链起来的数组块里，块的大小从 16 开始翻倍，最大 {@link #MAX_CHUNK}。
+ * <ul>
+ *     <li>追加不会像 ArrayList 扩容那样复制已有元素</li>
+ *     <li>{@link #append(ChunkedList)} 只是把对方的块链接到自己末尾，O(1)，并行收集的合并阶段不再复制任何元素</li>
+ * </ul>
+ * 随机访问 {@link #get(int)} 需要按块跳跃，是 O(块数) 的，遍历请优先使用迭代器或 forEach。
+ * 非线程安全。
+ */
+public class ChunkedList<T> extends AbstractList<T> {
+
+    private static final int MIN_CHUNK = 16;
+
+    private static final int MAX_CHUNK = 8192;
+
+    private Chunk head;
+
+    private Chunk tail;
+
+    private int size;
+
+    @Override
+    public boolean add(T item) {
+        Chunk last = tail;
+        if (last == null || last.count == last.items.length) {
+            last = newChunk(last == null ? MIN_CHUNK : Math.min(MAX_CHUNK, last.items.length << 1));
+        }
+        last.items[last.count++] = item;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private Chunk newChunk(int capacity) {
+        Chunk chunk = new Chunk(capacity);
+        if (tail == null) {
+            head = chunk;
+        } else {
+            tail.next = chunk;
+        }
+        tail = chunk;
+        return chunk;
+    }
+
+    /**
+     * 把 other 的所有块链接到当前列表末尾，不复制元素。调用之后 other 被清空，不能再和当前列表共享块。
+     */
+    public ChunkedList<T> append(ChunkedList<T> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("cannot append a list to itself");
+        }
+        if (other.head == null) {
+            return this;
+        }
+        if (head == null) {
+            head = other.head;
+        } else {
+            tail.next = other.head;
+        }
+        tail = other.tail;
+        size += other.size;
+        modCount++;
+        other.head = other.tail = null;
+        other.size = 0;
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        Chunk chunk = head;
+        while (index >= chunk.count) {
+            index -= chunk.count;
+            chunk = chunk.next;
+        }
+        return (T) chunk.items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        head = tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.count; i++) {
+                action.accept((T) chunk.items[i]);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED);
+    }
+
+    private static final class Chunk {
+
+        final Object[] items;
+
+        int count;
+
+        Chunk next;
+
+        Chunk(int capacity) {
+            this.items = new Object[capacity];
+        }
+    }
+
+    private final class Itr implements Iterator<T> {
+
+        private Chunk chunk = head;
+
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            while (chunk != null && index == chunk.count) {
+                chunk = chunk.next;
+                index = 0;
+            }
+            return chunk != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (T) chunk.items[index++];
+        }
+    }
+}
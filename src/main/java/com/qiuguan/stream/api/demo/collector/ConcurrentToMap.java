@@ -0,0 +1,375 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 00:24:51 Monday
+ * <p>
+ * {@link java.util.stream.Collectors#toMap} 的并行版本。{@code Collectors.toMap} 在并行流里每个叶子任务一个 HashMap，
+ * 再两两合并；{@code ParallelStreamDemo} 里共用一个 ConcurrentHashMap 的写法，在重复 key 多的时候线程都挤在同样几个桶上。
+ * 这里所有线程共用一张按 key 哈希分条(stripe)的表，每条是一个开放寻址的数组表、各自加锁：
+ * <ul>
+ *     <li>默认是 CONCURRENT + UNORDERED，整个流只有一张表，没有合并阶段；重复 key 的合并顺序不确定</li>
+ *     <li>{@link #skipCombiner(boolean) skipCombiner(false)} 时每个叶子任务一张表，按遇到顺序合并，结果和 Collectors.toMap 完全一致</li>
+ *     <li>{@link #collect(Stream)} 会从 SIZED 的 Spliterator 拿到元素个数预先分配容量，扩容只在数量未知时发生；
+ *     每个叶子任务一张表时只按一个叶子的份额预分配，合并时目标表按两边的实际大小一次扩到位</li>
+ *     <li>{@link #diagnose(Stream)} 不在第一个重复 key 上抛异常，而是收集完整的重复 key 报告</li>
+ * </ul>
+ * 和 Collectors.toMap 一样，key、value 都不能为 null；合并函数也不能返回 null。
+ * <pre>
+ *     Map&lt;String, String&gt; map = ConcurrentToMap.of(Person::getName, Person::getCountry)
+ *             .merge((k1, k2) -&gt; k2)
+ *             .collect(persons.parallelStream());
+ * </pre>
+ */
+public final class ConcurrentToMap<T, K, V> {
+
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 并行流大约拆成多少个叶子任务，和 JDK 的 AbstractTask.LEAF_TARGET 一致(那里也是按 commonPool 的并行度算的，与实际运行的池子无关)
+     */
+    private static final int LEAF_TARGET = ForkJoinPool.getCommonPoolParallelism() << 2;
+
+    private final Function<? super T, ? extends K> keyMapper;
+
+    private final Function<? super T, ? extends V> valueMapper;
+
+    private BinaryOperator<V> merge;
+
+    private long expectedSize = -1;
+
+    private boolean skipCombiner = true;
+
+    private ConcurrentToMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper) {
+        this.keyMapper = Objects.requireNonNull(keyMapper, "keyMapper");
+        this.valueMapper = Objects.requireNonNull(valueMapper, "valueMapper");
+    }
+
+    public static <T, K, V> ConcurrentToMap<T, K, V> of(Function<? super T, ? extends K> keyMapper,
+                                                        Function<? super T, ? extends V> valueMapper) {
+        return new ConcurrentToMap<>(keyMapper, valueMapper);
+    }
+
+    /**
+     * 重复 key 的合并函数，不设置时重复 key 抛 IllegalStateException(诊断模式除外)
+     */
+    public ConcurrentToMap<T, K, V> merge(BinaryOperator<V> merge) {
+        this.merge = Objects.requireNonNull(merge, "merge");
+        return this;
+    }
+
+    /**
+     * 预计的元素个数，用于预先分配表的容量；{@link #collect(Stream)} 遇到 SIZED 的流会自动设置
+     */
+    public ConcurrentToMap<T, K, V> expectedSize(long expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        this.expectedSize = expectedSize;
+        return this;
+    }
+
+    /**
+     * true(默认)：所有线程共用一张分条表，跳过合并阶段；false：每个叶子任务一张表，按遇到顺序合并
+     */
+    public ConcurrentToMap<T, K, V> skipCombiner(boolean skipCombiner) {
+        this.skipCombiner = skipCombiner;
+        return this;
+    }
+
+    public Collector<T, ?, Map<K, V>> collector() {
+        return Collectors.collectingAndThen(collector(false, expectedSize, true), Report::getMap);
+    }
+
+    /**
+     * 先从 Spliterator 取元素个数再收集，SIZED 的流(List、数组、range 等)不会发生扩容
+     */
+    public Map<K, V> collect(Stream<? extends T> stream) {
+        return collect(stream, false).getMap();
+    }
+
+    /**
+     * 诊断模式的收集器：重复 key 不抛异常，有合并函数时照常合并，没有时保留先写入的值
+     */
+    public Collector<T, ?, Report<K, V>> diagnosticsCollector() {
+        return collector(true, expectedSize, true);
+    }
+
+    public Report<K, V> diagnose(Stream<? extends T> stream) {
+        return collect(stream, true);
+    }
+
+    private Report<K, V> collect(Stream<? extends T> stream, boolean diagnostics) {
+        Spliterator<? extends T> spliterator = stream.spliterator();
+        long size = expectedSize >= 0 ? expectedSize : spliterator.getExactSizeIfKnown();
+        try (Stream<? extends T> sized = StreamSupport.stream(spliterator, stream.isParallel()).onClose(stream::close)) {
+            return sized.collect(collector(diagnostics, size, stream.isParallel()));
+        }
+    }
+
+    /**
+     * @param parallel 不知道流是否并行时(单独取收集器)按并行处理，顺序流最多多扩容几次
+     */
+    private Collector<T, StripedTable<K, V>, Report<K, V>> collector(boolean diagnostics, long size, boolean parallel) {
+        BinaryOperator<V> merge = this.merge;
+        if (!skipCombiner) {
+            //supplier 每个叶子任务调用一次，按整个流的大小分配会让每张表都是全量大小
+            long leafSize = parallel && size > 0 ? size / LEAF_TARGET + 1 : size;
+            return Collector.of(
+                    () -> new StripedTable<>(1, leafSize, merge, diagnostics),
+                    this::accumulate,
+                    StripedTable::absorb,
+                    StripedTable::finish);
+        }
+        return Collector.of(
+                () -> new StripedTable<>(STRIPES, size, merge, diagnostics),
+                this::accumulate,
+                //CONCURRENT 收集器只有在框架退回普通归约时才会调用 combiner
+                StripedTable::absorb,
+                StripedTable::finish,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private void accumulate(StripedTable<K, V> table, T item) {
+        K key = keyMapper.apply(item);
+        V value = valueMapper.apply(item);
+        table.put(Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+    }
+
+    private static int stripeCount(int processors) {
+        //按 key 分条时不同线程也可能落到同一条，条数取核数的 8 倍
+        return Math.max(16, Integer.highestOneBit(processors * 8 - 1) << 1);
+    }
+
+    /**
+     * 诊断模式的结果
+     */
+    @Value
+    public static class Report<K, V> {
+
+        Map<K, V> map;
+
+        /**
+         * 出现过不止一次的 key 和它出现的总次数
+         */
+        Map<K, Long> duplicateKeys;
+
+        public boolean hasDuplicates() {
+            return !duplicateKeys.isEmpty();
+        }
+    }
+
+    private static final class StripedTable<K, V> {
+
+        private static final float LOAD_FACTOR = 0.6f;
+
+        private final Stripe<K, V>[] stripes;
+
+        private final int stripeShift;
+
+        private final BinaryOperator<V> merge;
+
+        private final boolean diagnostics;
+
+        @SuppressWarnings("unchecked")
+        StripedTable(int stripeCount, long expectedSize, BinaryOperator<V> merge, boolean diagnostics) {
+            this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[stripeCount];
+            this.stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+            this.merge = merge;
+            this.diagnostics = diagnostics;
+            long perStripe = expectedSize < 0 ? 0 : expectedSize / stripeCount + 1;
+            int capacity = capacityFor(perStripe);
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe<>(capacity);
+            }
+        }
+
+        static int capacityFor(long entries) {
+            return tableSizeFor((long) (entries / LOAD_FACTOR) + 1);
+        }
+
+        private static int tableSizeFor(long size) {
+            return (int) Math.min(1 << 30, Math.max(8, Long.highestOneBit(size - 1) << 1));
+        }
+
+        private static int hash(Object key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) * 0x9E3779B9;
+        }
+
+        void put(K key, V value) {
+            int hash = hash(key);
+            //高位选条，低位在条内寻址，两者互不相关
+            Stripe<K, V> stripe = stripes.length == 1 ? stripes[0] : stripes[hash >>> stripeShift];
+            synchronized (stripe) {
+                stripe.put(key, hash, value, this);
+            }
+        }
+
+        V merge(K key, V existing, V value, Stripe<K, V> stripe) {
+            if (diagnostics) {
+                stripe.duplicate(key);
+                return merge == null ? existing : Objects.requireNonNull(merge.apply(existing, value), "merge result");
+            }
+            if (merge == null) {
+                throw new IllegalStateException(String.format("Duplicate key %s (attempted merging values %s and %s)", key, existing, value));
+            }
+            return Objects.requireNonNull(merge.apply(existing, value), "merge result");
+        }
+
+        StripedTable<K, V> absorb(StripedTable<K, V> other) {
+            //两张表来自同一个 supplier，条数相同，同一个 key 在两边落在同一条上
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe<K, V> target = stripes[i];
+                synchronized (target) {
+                    target.ensureCapacity(target.size + other.stripes[i].size);
+                }
+            }
+            for (Stripe<K, V> stripe : other.stripes) {
+                stripe.forEach(this::put);
+                if (stripe.duplicates != null) {
+                    //右侧表内部的重复次数也要算进来，每个 key 在右侧出现 n 次，上面的 put 已经计了 1 次
+                    stripe.duplicates.forEach((key, count) -> {
+                        Stripe<K, V> target = stripes.length == 1 ? stripes[0] : stripes[hash(key) >>> stripeShift];
+                        target.duplicates(key, count - 1);
+                    });
+                }
+            }
+            return this;
+        }
+
+        Report<K, V> finish() {
+            int size = 0;
+            for (Stripe<K, V> stripe : stripes) {
+                size += stripe.size;
+            }
+            Map<K, V> map = new HashMap<>((int) (size / 0.75f) + 1);
+            Map<K, Long> duplicates = diagnostics ? new HashMap<>() : Collections.emptyMap();
+            for (Stripe<K, V> stripe : stripes) {
+                stripe.forEach(map::put);
+                if (stripe.duplicates != null) {
+                    duplicates.putAll(stripe.duplicates);
+                }
+            }
+            return new Report<>(map, duplicates);
+        }
+    }
+
+    /**
+     * 线性探测的开放寻址表，keys/values 用平行数组存放，另存一份哈希值，探测时先比哈希再调 equals
+     */
+    private static final class Stripe<K, V> {
+
+        private Object[] keys;
+
+        private Object[] values;
+
+        private int[] hashes;
+
+        private int size;
+
+        private int threshold;
+
+        /**
+         * 诊断模式下记录重复 key 的出现次数，只有出现重复时才创建
+         */
+        private Map<K, Long> duplicates;
+
+        Stripe(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new Object[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            threshold = (int) (capacity * StripedTable.LOAD_FACTOR);
+        }
+
+        @SuppressWarnings("unchecked")
+        void put(K key, int hash, V value, StripedTable<K, V> table) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            Object existing;
+            while ((existing = keys[index]) != null) {
+                if (hashes[index] == hash && existing.equals(key)) {
+                    values[index] = table.merge(key, (V) values[index], value, this);
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            hashes[index] = hash;
+            if (++size > threshold) {
+                resize(keys.length << 1);
+            }
+        }
+
+        /**
+         * 合并前按两边大小之和一次扩到位，重复 key 多时会多分配一些
+         */
+        void ensureCapacity(int entries) {
+            if (entries > threshold) {
+                resize(StripedTable.capacityFor(entries));
+            }
+        }
+
+        private void resize(int capacity) {
+            Object[] oldKeys = keys;
+            Object[] oldValues = values;
+            int[] oldHashes = hashes;
+            allocate(capacity);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int index = oldHashes[i] & mask;
+                    while (keys[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                    hashes[index] = oldHashes[i];
+                }
+            }
+        }
+
+        void duplicate(K key) {
+            //第一次重复时这个 key 已经出现了 2 次
+            duplicates(key, 1);
+        }
+
+        void duplicates(K key, long extra) {
+            if (duplicates == null) {
+                duplicates = new HashMap<>();
+            }
+            duplicates.merge(key, extra + 1, (count, ignored) -> count + extra);
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(BiConsumer<K, V> action) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    action.accept((K) keys[i], (V) values[i]);
+                }
+            }
+        }
+    }
+}
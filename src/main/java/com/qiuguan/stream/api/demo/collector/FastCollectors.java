@@ -0,0 +1,341 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import com.qiuguan.stream.api.demo.encoding.EncodedKey;
+import com.qiuguan.stream.api.demo.encoding.KeyDictionary;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 12:31:40 Sunday
+ * <p>
+ * 面向大数据量、并行流的收集器，用法和 {@link java.util.stream.Collectors} 一样。
+ */
+public final class FastCollectors {
+
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private FastCollectors() {
+    }
+
+    /**
+     * 收集成 {@link ChunkedList}，合并阶段只链接分块
+     */
+    public static <T> Collector<T, ?, List<T>> toChunkedList() {
+        return Collector.of(
+                ChunkedList<T>::new,
+                ChunkedList::add,
+                ChunkedList::append,
+                list -> list,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * {@code CustomCollectorDemo.testCollect2} 的写法是每个叶子任务一个 HashMap，合并时 {@code list1.addAll(list2)}，
+     * 归并树的每一层都要把元素再复制一遍；{@code ParallelStreamDemo} 的写法是所有线程共用一个 ConcurrentHashMap，
+     * 所有线程都挤在同样几个桶上。这里取两者之长：
+     * <ul>
+     *     <li>CONCURRENT：整个流只创建一个容器，没有叶子级别的 HashMap，也没有合并阶段</li>
+     *     <li>容器内部按线程分条(stripe)，每个线程基本只碰自己那一条，锁几乎不会发生竞争</li>
+     *     <li>结束时把各条的同一个 key 合并，List 下游用 {@link ChunkedList#append} 直接链接分块，不复制元素</li>
+     * </ul>
+     * 和 {@link java.util.stream.Collectors#groupingByConcurrent} 一样，结果不保证遇到顺序(encounter order)。
+     */
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingByConcurrent(Function<? super T, ? extends K> classifier) {
+        return groupingByConcurrent(classifier, toChunkedList());
+    }
+
+    /**
+     * 带下游收集器的版本，每个分条里每个 key 一个下游容器，结束时用下游的 combiner 合并各分条
+     */
+    public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingByConcurrent(Function<? super T, ? extends K> classifier,
+                                                                             Collector<? super T, A, D> downstream) {
+        Objects.requireNonNull(classifier, "classifier");
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        boolean identityFinish = downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH);
+
+        return Collector.of(
+                () -> new StripedGroups<K, A>(STRIPES),
+                (groups, item) -> {
+                    K key = Objects.requireNonNull(classifier.apply(item), "element cannot be mapped to a null key");
+                    Map<K, A> stripe = groups.currentStripe();
+                    synchronized (stripe) {
+                        A container = stripe.get(key);
+                        if (container == null) {
+                            container = downstreamSupplier.get();
+                            stripe.put(key, container);
+                        }
+                        downstreamAccumulator.accept(container, item);
+                    }
+                },
+                //声明了 CONCURRENT + UNORDERED，并行流(无论是否有序)都走共享容器，这里只是满足 Collector 的契约
+                (left, right) -> left.absorb(right, downstreamCombiner),
+                groups -> groups.finish(downstreamCombiner, downstreamFinisher, identityFinish),
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 等价于 {@code Collectors.toMap(keyMapper, valueMapper)}，所有线程共用一张分条的开放寻址表，详见 {@link ConcurrentToMap}
+     */
+    public static <T, K, V> Collector<T, ?, Map<K, V>> toMapConcurrent(Function<? super T, ? extends K> keyMapper,
+                                                                     Function<? super T, ? extends V> valueMapper) {
+        return ConcurrentToMap.<T, K, V>of(keyMapper, valueMapper).collector();
+    }
+
+    /**
+     * 等价于 {@code Collectors.toMap(keyMapper, valueMapper, merge)}，重复 key 的合并顺序不确定，需要确定顺序时用
+     * {@code ConcurrentToMap.of(...).skipCombiner(false)}
+     */
+    public static <T, K, V> Collector<T, ?, Map<K, V>> toMapConcurrent(Function<? super T, ? extends K> keyMapper,
+                                                                     Function<? super T, ? extends V> valueMapper,
+                                                                     BinaryOperator<V> merge) {
+        return ConcurrentToMap.<T, K, V>of(keyMapper, valueMapper).merge(merge).collector();
+    }
+
+    /**
+     * 等价于 {@code groupingBy(attribute, counting())}，key 是字典编码后的 int，每行只是一次 long[] 自增，
+     * 最后再按字典还原成字符串 key。结果按编码顺序(首次出现的顺序)排列。
+     */
+    public static <T> Collector<T, ?, Map<String, Long>> countingByEncoded(EncodedKey<T> key) {
+        Objects.requireNonNull(key, "key");
+        return Collector.of(
+                () -> new EncodedCounts(key.dictionary().size()),
+                (counts, item) -> counts.increment(encode(key, item)),
+                EncodedCounts::merge,
+                counts -> key.dictionary().decodeCounts(counts.counts));
+    }
+
+    /**
+     * 已经编码好的 int 列直接计数，没有装箱、没有 lambda 取 key，每个编码只是一次 long[] 自增：
+     * {@code FastCollectors.countingByEncoded(table.countryDictionary(), table.countryCodes())}。
+     * 和 {@link #countingByEncoded(EncodedKey)} 一样，遇到 null 编码抛 NullPointerException；结果按编码顺序排列。
+     */
+    public static Map<String, Long> countingByEncoded(KeyDictionary dictionary, IntStream codes) {
+        Objects.requireNonNull(dictionary, "dictionary");
+        EncodedCounts counts = Objects.requireNonNull(codes, "codes").collect(
+                () -> new EncodedCounts(dictionary.size()),
+                (left, code) -> left.increment(checkCode(code)),
+                EncodedCounts::merge);
+        return dictionary.decodeCounts(counts.counts);
+    }
+
+    /**
+     * 等价于 {@code groupingBy(attribute)}，分组容器放在以编码为下标的数组里，不经过 HashMap
+     */
+    public static <T> Collector<T, ?, Map<String, List<T>>> groupingByEncoded(EncodedKey<T> key) {
+        return groupingByEncoded(key, toChunkedList());
+    }
+
+    public static <T, A, D> Collector<T, ?, Map<String, D>> groupingByEncoded(EncodedKey<T> key,
+                                                                            Collector<? super T, A, D> downstream) {
+        Objects.requireNonNull(key, "key");
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+
+        return Collector.<T, EncodedBuckets<A>, Map<String, D>>of(
+                () -> new EncodedBuckets<>(key.dictionary().size()),
+                (buckets, item) -> downstreamAccumulator.accept(buckets.get(encode(key, item), downstreamSupplier), item),
+                (left, right) -> left.merge(right, downstreamCombiner),
+                buckets -> {
+                    Map<String, D> result = new LinkedHashMap<>();
+                    for (int code = 0; code < buckets.containers.length; code++) {
+                        A container = buckets.container(code);
+                        if (container != null) {
+                            result.put(key.decode(code), downstreamFinisher.apply(container));
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private static <T> int encode(EncodedKey<T> key, T item) {
+        return checkCode(key.code(item));
+    }
+
+    private static int checkCode(int code) {
+        if (code == KeyDictionary.NULL_CODE) {
+            throw new NullPointerException("element cannot be mapped to a null key");
+        }
+        return code;
+    }
+
+    /**
+     * 等价于 {@code sorted(comparator).limit(k)}，但只用一个容量为 k 的堆，不缓冲整个流。
+     * 并行流中每个叶子任务维护自己的堆，合并时把右侧的堆逐个插入左侧。相等元素的先后不保证。
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        return topK(k, comparator, false);
+    }
+
+    /**
+     * 稳定版本：比较相等的元素保持遇到顺序，结果和 {@code sorted(comparator).limit(k)} 完全一致
+     */
+    public static <T> Collector<T, ?, List<T>> topKStable(int k, Comparator<? super T> comparator) {
+        return topK(k, comparator, true);
+    }
+
+    private static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator, boolean stable) {
+        checkK(k);
+        Objects.requireNonNull(comparator, "comparator");
+        return Collector.of(
+                () -> new BoundedHeap<T>(k, comparator, stable),
+                BoundedHeap::add,
+                BoundedHeap::merge,
+                BoundedHeap::drainSorted);
+    }
+
+    /**
+     * int 键的快速版本，比如 {@code topKByInt(100, Person::getAge)} 取年龄最小的 100 个人：
+     * 每个元素只取一次键，堆内比较都是 int 比较。相同键保持遇到顺序。
+     */
+    public static <T> Collector<T, ?, List<T>> topKByInt(int k, ToIntFunction<? super T> keyExtractor) {
+        checkK(k);
+        Objects.requireNonNull(keyExtractor, "keyExtractor");
+        return Collector.of(
+                () -> new IntKeyHeap<T>(k, keyExtractor),
+                IntKeyHeap::add,
+                IntKeyHeap::merge,
+                IntKeyHeap::drainSorted);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    private static int stripeCount(int processors) {
+        //2 倍核数再向上取 2 的幂，降低两个线程哈希到同一条的概率
+        return Integer.highestOneBit(Math.max(1, processors * 2 - 1)) << 1;
+    }
+
+    /**
+     * 以编码为下标的计数器，编码可能在收集过程中才分配出来，所以按需扩容
+     */
+    private static final class EncodedCounts {
+
+        private long[] counts;
+
+        EncodedCounts(int expectedSize) {
+            counts = new long[Math.max(16, expectedSize)];
+        }
+
+        void increment(int code) {
+            if (code >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(code + 1, counts.length << 1));
+            }
+            counts[code]++;
+        }
+
+        EncodedCounts merge(EncodedCounts other) {
+            if (other.counts.length > counts.length) {
+                counts = Arrays.copyOf(counts, other.counts.length);
+            }
+            for (int code = 0; code < other.counts.length; code++) {
+                counts[code] += other.counts[code];
+            }
+            return this;
+        }
+    }
+
+    private static final class EncodedBuckets<A> {
+
+        private Object[] containers;
+
+        EncodedBuckets(int expectedSize) {
+            containers = new Object[Math.max(16, expectedSize)];
+        }
+
+        A get(int code, Supplier<A> supplier) {
+            if (code >= containers.length) {
+                containers = Arrays.copyOf(containers, Math.max(code + 1, containers.length << 1));
+            }
+            A container = container(code);
+            if (container == null) {
+                container = supplier.get();
+                containers[code] = container;
+            }
+            return container;
+        }
+
+        @SuppressWarnings("unchecked")
+        A container(int code) {
+            return (A) containers[code];
+        }
+
+        EncodedBuckets<A> merge(EncodedBuckets<A> other, BinaryOperator<A> combiner) {
+            if (other.containers.length > containers.length) {
+                containers = Arrays.copyOf(containers, other.containers.length);
+            }
+            for (int code = 0; code < other.containers.length; code++) {
+                A right = other.container(code);
+                if (right != null) {
+                    A left = container(code);
+                    containers[code] = left == null ? right : combiner.apply(left, right);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class StripedGroups<K, A> {
+
+        private final Map<K, A>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        StripedGroups(int stripeCount) {
+            stripes = (Map<K, A>[]) new Map<?, ?>[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new HashMap<>();
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        Map<K, A> currentStripe() {
+            long id = Thread.currentThread().getId();
+            int hash = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+            return stripes[hash & (stripes.length - 1)];
+        }
+
+        StripedGroups<K, A> absorb(StripedGroups<K, A> other, BinaryOperator<A> combiner) {
+            for (int i = 0; i < stripes.length; i++) {
+                Map<K, A> target = stripes[i];
+                other.stripes[i].forEach((key, container) -> target.merge(key, container, combiner));
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        <D> Map<K, D> finish(BinaryOperator<A> combiner, Function<A, D> finisher, boolean identityFinish) {
+            Map<K, A> merged = new HashMap<>();
+            for (Map<K, A> stripe : stripes) {
+                stripe.forEach((key, container) -> merged.merge(key, container, combiner));
+            }
+            if (identityFinish) {
+                return (Map<K, D>) merged;
+            }
+            Map<K, D> result = new HashMap<>((int) (merged.size() / 0.75f) + 1);
+            merged.forEach((key, container) -> result.put(key, finisher.apply(container)));
+            return result;
+        }
+    }
+}
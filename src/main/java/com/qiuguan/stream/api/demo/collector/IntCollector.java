@@ -0,0 +1,58 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 01:27:44 Monday
+ * <p>
+ * 输入是 int 的收集器，累加器是 {@link ObjIntConsumer}，值在整个收集过程中都不会装箱成 Integer。
+ * 常用的实现见 {@link IntCollectors}，用 {@link IntCollectors#mapping} 转成普通的 Collector 后可以放进
+ * groupingBy、partitioningBy 的下游。
+ *
+ * @param <A> 可变的累加容器
+ * @param <R> 结果
+ */
+public interface IntCollector<A, R> {
+
+    Supplier<A> supplier();
+
+    ObjIntConsumer<A> accumulator();
+
+    BinaryOperator<A> combiner();
+
+    Function<A, R> finisher();
+
+    static <A, R> IntCollector<A, R> of(Supplier<A> supplier, ObjIntConsumer<A> accumulator,
+                                        BinaryOperator<A> combiner, Function<A, R> finisher) {
+        Objects.requireNonNull(supplier, "supplier");
+        Objects.requireNonNull(accumulator, "accumulator");
+        Objects.requireNonNull(combiner, "combiner");
+        Objects.requireNonNull(finisher, "finisher");
+        return new IntCollector<>() {
+            @Override
+            public Supplier<A> supplier() {
+                return supplier;
+            }
+
+            @Override
+            public ObjIntConsumer<A> accumulator() {
+                return accumulator;
+            }
+
+            @Override
+            public BinaryOperator<A> combiner() {
+                return combiner;
+            }
+
+            @Override
+            public Function<A, R> finisher() {
+                return finisher;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 01:36:20 Monday
+ * <p>
+ * int 专用的收集器。{@code TerminalOperationDemo.testAggregate} 为 sum 和 average 各建一次 mapToInt 流，
+ * 这里一遍扫描拿到所有统计量，也可以放进分组的下游：
+ * <pre>
+ *     //每个国家的平均年龄，一遍扫描，不创建 Integer
+ *     Map&lt;String, Double&gt; avg = persons.stream()
+ *             .collect(IntCollectors.groupingByInt(Person::getCountry, Person::getAge, IntCollectors.averaging()));
+ *
+ *     //和 JDK 的 partitioningBy 组合
+ *     Map&lt;Boolean, IntStatistics&gt; stats = persons.stream()
+ *             .collect(Collectors.partitioningBy(p -&gt; "男".equals(p.getSex()), IntCollectors.summarizing(Person::getAge)));
+ * </pre>
+ */
+public final class IntCollectors {
+
+    private IntCollectors() {
+    }
+
+    public static IntCollector<long[], Long> counting() {
+        return IntCollector.of(
+                () -> new long[1],
+                (count, value) -> count[0]++,
+                (left, right) -> {
+                    left[0] += right[0];
+                    return left;
+                },
+                count -> count[0]);
+    }
+
+    /**
+     * 用 long 累加，不会像 {@code IntStream.sum()} 那样溢出
+     */
+    public static IntCollector<long[], Long> summing() {
+        return IntCollector.of(
+                () -> new long[1],
+                (sum, value) -> sum[0] += value,
+                (left, right) -> {
+                    left[0] += right[0];
+                    return left;
+                },
+                sum -> sum[0]);
+    }
+
+    /**
+     * 没有元素时为 0，和 {@link Collectors#averagingInt} 一致
+     */
+    public static IntCollector<long[], Double> averaging() {
+        return IntCollector.of(
+                () -> new long[2],
+                (state, value) -> {
+                    state[0] += value;
+                    state[1]++;
+                },
+                (left, right) -> {
+                    left[0] += right[0];
+                    left[1] += right[1];
+                    return left;
+                },
+                state -> state[1] == 0 ? 0.0d : (double) state[0] / state[1]);
+    }
+
+    public static IntCollector<?, OptionalInt> min() {
+        return extreme(Math::min);
+    }
+
+    public static IntCollector<?, OptionalInt> max() {
+        return extreme(Math::max);
+    }
+
+    private static IntCollector<int[], OptionalInt> extreme(IntBinaryOperator op) {
+        //[0] 是否有值，[1] 当前值
+        return IntCollector.of(
+                () -> new int[2],
+                (state, value) -> {
+                    state[1] = state[0] == 0 ? value : op.applyAsInt(state[1], value);
+                    state[0] = 1;
+                },
+                (left, right) -> {
+                    if (right[0] != 0) {
+                        left[1] = left[0] == 0 ? right[1] : op.applyAsInt(left[1], right[1]);
+                        left[0] = 1;
+                    }
+                    return left;
+                },
+                state -> state[0] == 0 ? OptionalInt.empty() : OptionalInt.of(state[1]));
+    }
+
+    /**
+     * count、sum、min、max、均值、方差、分位数一次得到
+     */
+    public static IntCollector<IntStatistics, IntStatistics> statistics() {
+        return IntCollector.of(IntStatistics::new, IntStatistics::accept, IntStatistics::combine, Function.identity());
+    }
+
+    /**
+     * 只需要分位数时用这个，不维护其他统计量；没有元素时为空
+     */
+    public static IntCollector<IntQuantileSketch, OptionalInt> percentile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+        }
+        return IntCollector.of(
+                IntQuantileSketch::new,
+                IntQuantileSketch::add,
+                IntQuantileSketch::merge,
+                sketch -> sketch.count() == 0 ? OptionalInt.empty() : OptionalInt.of((int) sketch.quantile(quantile)));
+    }
+
+    /**
+     * 把 IntCollector 接到对象流上：先用 mapper 取出 int，再交给 int 累加器
+     */
+    public static <T, A, R> Collector<T, A, R> mapping(ToIntFunction<? super T> mapper, IntCollector<A, R> downstream) {
+        Objects.requireNonNull(mapper, "mapper");
+        ObjIntConsumer<A> accumulator = downstream.accumulator();
+        return Collector.of(
+                downstream.supplier(),
+                (container, item) -> accumulator.accept(container, mapper.applyAsInt(item)),
+                downstream.combiner(),
+                downstream.finisher());
+    }
+
+    /**
+     * {@link Collectors#summarizingInt} 的增强版
+     */
+    public static <T> Collector<T, ?, IntStatistics> summarizing(ToIntFunction<? super T> mapper) {
+        return mapping(mapper, statistics());
+    }
+
+    /**
+     * 按 classifier 分组，每组用 int 累加器收集 mapper 取出的值
+     */
+    public static <T, K, A, R> Collector<T, ?, Map<K, R>> groupingByInt(Function<? super T, ? extends K> classifier,
+                                                                     ToIntFunction<? super T> mapper,
+                                                                     IntCollector<A, R> downstream) {
+        return Collectors.groupingBy(classifier, mapping(mapper, downstream));
+    }
+
+    public static <T, A, R> Collector<T, ?, Map<Boolean, R>> partitioningByInt(Predicate<? super T> predicate,
+                                                                            ToIntFunction<? super T> mapper,
+                                                                            IntCollector<A, R> downstream) {
+        return Collectors.partitioningBy(predicate, mapping(mapper, downstream));
+    }
+}
@@ -0,0 +1,126 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 16:05:51 Sunday
+ * <p>
+ * {@link BoundedHeap} 的 int 键版本：键在入堆时取一次存进 int[]，之后的比较都是 int 比较，
+ * 不再调用比较器，也没有装箱。相同键按遇到顺序排，始终是稳定的。
+ */
+final class IntKeyHeap<T> {
+
+    private final int k;
+
+    private final ToIntFunction<? super T> keyExtractor;
+
+    private final Object[] items;
+
+    private final int[] keys;
+
+    private final long[] seqs;
+
+    private int size;
+
+    private long seen;
+
+    IntKeyHeap(int k, ToIntFunction<? super T> keyExtractor) {
+        this.k = k;
+        this.keyExtractor = keyExtractor;
+        this.items = new Object[k];
+        this.keys = new int[k];
+        this.seqs = new long[k];
+    }
+
+    void add(T item) {
+        offer(item, keyExtractor.applyAsInt(item), seen++);
+    }
+
+    IntKeyHeap<T> merge(IntKeyHeap<T> right) {
+        long offset = seen;
+        for (int i = 0; i < right.size; i++) {
+            offer(right.items[i], right.keys[i], right.seqs[i] + offset);
+        }
+        seen += right.seen;
+        return this;
+    }
+
+    private void offer(Object item, int key, long seq) {
+        if (size < k) {
+            set(size, item, key, seq);
+            siftUp(size++);
+        } else if (k > 0 && (key < keys[0] || key == keys[0] && seq < seqs[0])) {
+            set(0, item, key, seq);
+            siftDown(0);
+        }
+    }
+
+    private void set(int i, Object item, int key, long seq) {
+        items[i] = item;
+        keys[i] = key;
+        seqs[i] = seq;
+    }
+
+    private boolean greater(int i, int j) {
+        return keys[i] > keys[j] || keys[i] == keys[j] && seqs[i] > seqs[j];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!greater(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && greater(left, largest)) {
+                largest = left;
+            }
+            if (right < size && greater(right, largest)) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Object item = items[i];
+        int key = keys[i];
+        long seq = seqs[i];
+        set(i, items[j], keys[j], seqs[j]);
+        set(j, item, key, seq);
+    }
+
+    List<T> drainSorted() {
+        Object[] sorted = new Object[size];
+        while (size > 0) {
+            sorted[size - 1] = items[0];
+            size--;
+            set(0, items[size], keys[size], seqs[size]);
+            items[size] = null;
+            siftDown(0);
+        }
+        List<T> result = new ArrayList<>(sorted.length);
+        for (Object item : sorted) {
+            @SuppressWarnings("unchecked")
+            T t = (T) item;
+            result.add(t);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 01:05:33 Monday
+ * <p>
+ * 可合并的 int 分位数草图(对数-线性直方图)：
+ * <ul>
+ *     <li>绝对值小于 {@value #EXACT} 的值每个值一个桶，结果是精确的，年龄这类数据都落在这里</li>
+ *     <li>更大的值按 2 的幂分段，每段再等分 {@value #SUB_BUCKETS} 个桶，相对误差不超过 1/{@value #SUB_BUCKETS}</li>
+ * </ul>
+ * 内存只和值的范围有关，和元素个数无关；两个草图的合并就是桶计数相加，并行流的每个叶子任务各建一个即可。
+ * 桶数组按实际用到的最大下标扩容，只有小值时只占 {@value #EXACT} 个 long。
+ */
+public final class IntQuantileSketch {
+
+    static final int EXACT = 128;
+
+    static final int SUB_BUCKETS = 64;
+
+    private long[] positive = new long[0];
+
+    private long[] negative = new long[0];
+
+    private long count;
+
+    public void add(int value) {
+        if (value >= 0) {
+            positive = increment(positive, index(value));
+        } else {
+            negative = increment(negative, index(-(long) value));
+        }
+        count++;
+    }
+
+    private static long[] increment(long[] counts, int index) {
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, Math.max(EXACT, counts.length << 1)));
+        }
+        counts[index]++;
+        return counts;
+    }
+
+    /**
+     * 绝对值到桶下标：小于 EXACT 的直接用值本身，否则取最高位所在的段加上紧随其后的 6 位
+     */
+    static int index(long magnitude) {
+        if (magnitude < EXACT) {
+            return (int) magnitude;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(magnitude);
+        int shift = exponent - 6;
+        int mantissa = (int) (magnitude >>> shift) - SUB_BUCKETS;
+        return EXACT + (exponent - 7) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * 桶的代表值(区间中点)
+     */
+    static long value(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int exponent = (index - EXACT) / SUB_BUCKETS + 7;
+        int shift = exponent - 6;
+        long lower = (long) ((index - EXACT) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) - 1) / 2;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public IntQuantileSketch merge(IntQuantileSketch other) {
+        positive = add(positive, other.positive);
+        negative = add(negative, other.negative);
+        count += other.count;
+        return this;
+    }
+
+    private static long[] add(long[] target, long[] source) {
+        if (source.length > target.length) {
+            target = Arrays.copyOf(target, source.length);
+        }
+        for (int i = 0; i < source.length; i++) {
+            target[i] += source[i];
+        }
+        return target;
+    }
+
+    /**
+     * 第 quantile(0~1) 分位数，按最近秩(nearest-rank)计算；没有元素时抛 NoSuchElementException
+     */
+    public long quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            throw new NoSuchElementException("empty sketch");
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        //负数绝对值越大越小，倒序遍历
+        for (int i = negative.length - 1; i >= 0; i--) {
+            rank -= negative[i];
+            if (rank <= 0) {
+                return -value(i);
+            }
+        }
+        for (int i = 0; i < positive.length; i++) {
+            rank -= positive[i];
+            if (rank <= 0) {
+                return value(i);
+            }
+        }
+        throw new IllegalStateException("rank out of range");
+    }
+}
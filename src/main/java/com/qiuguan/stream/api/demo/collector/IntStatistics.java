@@ -0,0 +1,125 @@
+package com.qiuguan.stream.api.demo.collector;
+
+import java.util.function.IntConsumer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 01:18:09 Monday
+ * <p>
+ * 比 {@link java.util.IntSummaryStatistics} 多了方差、标准差和分位数，一遍扫描全部得到：
+ * <ul>
+ *     <li>sum 用 long 累加，min/max、count 和 IntSummaryStatistics 一致</li>
+ *     <li>均值和方差用 Welford 算法增量计算，合并时用 Chan 的公式，不会像 sum(x²) 那样抵消掉精度</li>
+ *     <li>分位数来自 {@link IntQuantileSketch}，绝对值小于 128 时是精确的</li>
+ * </ul>
+ * 和 IntSummaryStatistics 一样不是线程安全的，并行流中每个叶子任务一个实例，用 {@link #combine} 合并。
+ */
+public class IntStatistics implements IntConsumer {
+
+    private long count;
+
+    private long sum;
+
+    private int min = Integer.MAX_VALUE;
+
+    private int max = Integer.MIN_VALUE;
+
+    private double mean;
+
+    /**
+     * 与均值之差的平方和
+     */
+    private double m2;
+
+    private final IntQuantileSketch sketch = new IntQuantileSketch();
+
+    @Override
+    public void accept(int value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        sketch.add(value);
+    }
+
+    public IntStatistics combine(IntStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count > 0 ? mean : 0.0d;
+    }
+
+    /**
+     * 总体方差
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : 0.0d;
+    }
+
+    /**
+     * 样本方差(除以 n - 1)
+     */
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0d;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * 第 quantile(0~1) 分位数，结果限制在 [min, max] 之内；没有元素时抛 NoSuchElementException
+     */
+    public int getPercentile(double quantile) {
+        long value = sketch.quantile(quantile);
+        if (quantile == 0) {
+            return min;
+        }
+        if (quantile == 1) {
+            return max;
+        }
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    public int getMedian() {
+        return getPercentile(0.5);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%d, min=%d, average=%f, max=%d, stddev=%f}",
+                getClass().getSimpleName(), getCount(), getSum(), getMin(), getAverage(), getMax(), getStandardDeviation());
+    }
+}
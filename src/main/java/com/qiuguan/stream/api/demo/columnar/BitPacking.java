@@ -0,0 +1,66 @@
+package com.qiuguan.stream.api.demo.columnar;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 23:02:16 Sunday
+ * <p>
+ * 定宽位压缩：每个值先减去块内最小值 base，再用 width 位连续存放在 long 数组里。
+ * age 在 0~127 之间时每个值只占 7 位，而不是 int 的 32 位。
+ */
+final class BitPacking {
+
+    private BitPacking() {
+    }
+
+    /**
+     * 存放 [min, max] 区间的值需要的位数，min == max 时为 0，整列不占空间
+     */
+    static int width(int min, int max) {
+        return 64 - Long.numberOfLeadingZeros((long) max - min);
+    }
+
+    static int words(int count, int width) {
+        return (int) (((long) count * width + 63) >>> 6);
+    }
+
+    static long[] pack(int[] values, int count, int base, int width) {
+        long[] words = new long[words(count, width)];
+        if (width == 0) {
+            return words;
+        }
+        for (int i = 0; i < count; i++) {
+            long value = (long) values[i] - base;
+            long bit = (long) i * width;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] |= value << shift;
+            if (shift + width > 64) {
+                words[word + 1] |= value >>> (64 - shift);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 从 buffer 的 offset 处解压 count 个值到 target
+     */
+    static void unpack(ByteBuffer buffer, int offset, int count, int base, int width, int[] target) {
+        if (width == 0) {
+            java.util.Arrays.fill(target, 0, count, base);
+            return;
+        }
+        long mask = (1L << width) - 1;
+        for (int i = 0; i < count; i++) {
+            long bit = (long) i * width;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = buffer.getLong(offset + (word << 3)) >>> shift;
+            if (shift + width > 64) {
+                value |= buffer.getLong(offset + ((word + 1) << 3)) << (64 - shift);
+            }
+            target[i] = (int) ((value & mask) + base);
+        }
+    }
+}
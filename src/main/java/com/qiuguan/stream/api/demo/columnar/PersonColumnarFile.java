@@ -0,0 +1,266 @@
+package com.qiuguan.stream.api.demo.columnar;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.Block;
+import com.qiuguan.stream.api.demo.table.PersonTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.AGE;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.COLUMNS;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.COUNTRY;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.MAGIC;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.NAME;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.SEX;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.TRAILER_SIZE;
+import static com.qiuguan.stream.api.demo.columnar.PersonColumnarWriter.VERSION;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 23:36:05 Sunday
+ * <p>
+ * {@link PersonColumnarWriter} 写出的列式文件的读取端。
+ * <p>
+ * 打开时只把文件映射到内存并解析尾部的目录，不读取数据块；每个查询只解压它用到的列，
+ * 比如 {@link #ages()} 只碰 age 列，{@link #countByCountry()} 只碰 country 列。
+ * 带 age 区间的查询先用块目录里的 min/max 跳过整块：
+ * <pre>
+ *     file.agesBetween(31, Integer.MAX_VALUE).sum();   // age > 30
+ * </pre>
+ * 所有流都以块为单位拆分，可以直接 parallel()。映射是只读的，多线程读取是安全的。
+ */
+public final class PersonColumnarFile {
+
+    private final ByteBuffer buffer;
+
+    private final long size;
+
+    private final int blockSize;
+
+    private final String[] countries;
+
+    private final String[] sexes;
+
+    private final Dictionary names;
+
+    private final Block[] blocks;
+
+    private PersonColumnarFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int limit = buffer.limit();
+        if (limit < 8 + TRAILER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(limit - 4) != MAGIC) {
+            throw new IllegalArgumentException("not a person columnar file");
+        }
+        int version = buffer.getInt(limit - 8);
+        if (buffer.getInt(4) != VERSION || version != VERSION) {
+            throw new IllegalArgumentException("unsupported columnar file version: " + version);
+        }
+        this.blockSize = buffer.getInt(limit - 12);
+        this.size = buffer.getLong(limit - 20);
+        int position = (int) buffer.getLong(limit - TRAILER_SIZE);
+
+        Dictionary countryDictionary = new Dictionary(position);
+        this.countries = countryDictionary.decodeAll();
+        Dictionary sexDictionary = new Dictionary(countryDictionary.end);
+        this.sexes = sexDictionary.decodeAll();
+        this.names = new Dictionary(sexDictionary.end);
+
+        position = names.end;
+        this.blocks = new Block[buffer.getInt(position)];
+        position += 4;
+        for (int b = 0; b < blocks.length; b++, position += Block.SIZE) {
+            Block block = new Block(buffer.getInt(position));
+            block.minAge = buffer.getInt(position + 4);
+            block.maxAge = buffer.getInt(position + 8);
+            for (int column = 0; column < COLUMNS; column++) {
+                int at = position + 12 + column * 9;
+                block.offsets[column] = buffer.getInt(at);
+                block.bases[column] = buffer.getInt(at + 4);
+                block.widths[column] = buffer.get(at + 8);
+            }
+            blocks[b] = block;
+        }
+    }
+
+    public static PersonColumnarFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("columnar file larger than 2GB is not supported: " + path);
+            }
+            //映射在 channel 关闭后依然有效
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return new PersonColumnarFile(mapped);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int blockCount() {
+        return blocks.length;
+    }
+
+    public int blockMinAge(int block) {
+        return blocks[block].minAge;
+    }
+
+    public int blockMaxAge(int block) {
+        return blocks[block].maxAge;
+    }
+
+    /**
+     * age 区间和 [min, max] 有交集的块，其余的块不需要解压
+     */
+    public IntStream blocksWithAgeBetween(int min, int max) {
+        return IntStream.range(0, blocks.length)
+                .filter(b -> blocks[b].maxAge >= min && blocks[b].minAge <= max);
+    }
+
+    public IntStream ages() {
+        return IntStream.range(0, blocks.length).flatMap(b -> IntStream.of(column(b, AGE)));
+    }
+
+    public IntStream agesBetween(int min, int max) {
+        return blocksWithAgeBetween(min, max).flatMap(b -> {
+            Block block = blocks[b];
+            IntStream ages = IntStream.of(column(b, AGE));
+            //整块都落在区间里时不用逐行判断
+            return block.minAge >= min && block.maxAge <= max ? ages : ages.filter(age -> age >= min && age <= max);
+        });
+    }
+
+    /**
+     * age 在 [min, max] 中的行号，行号和写入顺序一致
+     */
+    public IntStream rowsWithAgeBetween(int min, int max) {
+        return blocksWithAgeBetween(min, max).flatMap(b -> {
+            int[] ages = column(b, AGE);
+            int first = b * blockSize;
+            return IntStream.range(0, blocks[b].rows)
+                    .filter(i -> ages[i] >= min && ages[i] <= max)
+                    .map(i -> first + i);
+        });
+    }
+
+    /**
+     * 只解压 country 列
+     */
+    public Map<String, Long> countByCountry() {
+        long[] counts = new long[countries.length + 1];
+        for (int b = 0; b < blocks.length; b++) {
+            for (int code : column(b, COUNTRY)) {
+                counts[code]++;
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(code == 0 ? null : countries[code - 1], counts[code]);
+            }
+        }
+        return result;
+    }
+
+    public Stream<Person> persons() {
+        return IntStream.range(0, blocks.length).boxed().flatMap(b -> persons(b, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    public Stream<Person> personsWithAgeBetween(int min, int max) {
+        return blocksWithAgeBetween(min, max).boxed().flatMap(b -> persons(b, min, max));
+    }
+
+    private Stream<Person> persons(int b, int min, int max) {
+        int[] ages = column(b, AGE);
+        int[] countryCodes = column(b, COUNTRY);
+        int[] sexCodes = column(b, SEX);
+        int[] nameCodes = column(b, NAME);
+        return IntStream.range(0, blocks[b].rows)
+                .filter(i -> ages[i] >= min && ages[i] <= max)
+                .mapToObj(i -> new Person(names.decode(nameCodes[i]), ages[i], decode(sexes, sexCodes[i]), decode(countries, countryCodes[i])));
+    }
+
+    /**
+     * 整个文件装载成 {@link PersonTable}，不经过 Person 对象
+     */
+    public PersonTable toTable() {
+        PersonTable table = new PersonTable((int) Math.min(size, Integer.MAX_VALUE));
+        //重复的姓名只解码一次
+        String[] nameValues = names.decodeAll();
+        for (int b = 0; b < blocks.length; b++) {
+            int[] ages = column(b, AGE);
+            int[] countryCodes = column(b, COUNTRY);
+            int[] sexCodes = column(b, SEX);
+            int[] nameCodes = column(b, NAME);
+            for (int i = 0; i < blocks[b].rows; i++) {
+                table.add(decode(nameValues, nameCodes[i]), ages[i], decode(sexes, sexCodes[i]), decode(countries, countryCodes[i]));
+            }
+        }
+        return table;
+    }
+
+    private int[] column(int b, int column) {
+        Block block = blocks[b];
+        int[] values = new int[block.rows];
+        BitPacking.unpack(buffer, block.offsets[column], block.rows, block.bases[column], block.widths[column], values);
+        return values;
+    }
+
+    /**
+     * 写入时编码 +1，0 表示 null
+     */
+    private static String decode(String[] dictionary, int code) {
+        return code == 0 ? null : dictionary[code - 1];
+    }
+
+    /**
+     * 文件中的字典，按编码直接定位到字节，姓名字典很大时不必整体解析
+     */
+    private final class Dictionary {
+
+        final int count;
+
+        final int offsets;
+
+        final int bytes;
+
+        final int end;
+
+        Dictionary(int position) {
+            this.count = buffer.getInt(position);
+            this.offsets = position + 4;
+            this.bytes = offsets + (count + 1) * 4;
+            this.end = bytes + buffer.getInt(offsets + count * 4);
+        }
+
+        String decode(int code) {
+            if (code == 0) {
+                return null;
+            }
+            int from = buffer.getInt(offsets + (code - 1) * 4);
+            int to = buffer.getInt(offsets + code * 4);
+            byte[] value = new byte[to - from];
+            buffer.get(bytes + from, value);
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        String[] decodeAll() {
+            String[] values = new String[count];
+            for (int code = 0; code < count; code++) {
+                values[code] = decode(code + 1);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.qiuguan.stream.api.demo.columnar;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.encoding.KeyDictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 23:10:42 Sunday
+ * <p>
+ * 把 Person 写成列式文件，读取见 {@link PersonColumnarFile}。
+ * <p>
+ * 文件布局(大端)：
+ * <pre>
+ * MAGIC | VERSION
+ * 数据块 0..n：age 列 | country 列 | sex 列 | name 列，每列都是位压缩的 long 数组
+ * 尾部(footer)：country 字典 | sex 字典 | name 字典 | 块目录(行数, age 最小/最大值, 每列的偏移/base/位宽)
+ * footer 偏移(long) | 总行数(long) | 块大小(int) | VERSION | MAGIC
+ * </pre>
+ * country、sex、name 都先字典编码成 int，相同的姓名只存一份；age 按块内的 [min, max] 位压缩，
+ * min/max 同时作为块统计，读取时按 age 过滤可以整块跳过。
+ * 字典和目录放在文件末尾，所以写入只需要一遍，内存里只保留当前块和字典。
+ */
+public final class PersonColumnarWriter {
+
+    static final int MAGIC = 0x50434F4C;
+
+    static final int VERSION = 1;
+
+    static final int COLUMNS = 4;
+
+    static final int AGE = 0;
+
+    static final int COUNTRY = 1;
+
+    static final int SEX = 2;
+
+    static final int NAME = 3;
+
+    /**
+     * 尾部固定部分的字节数：footer 偏移 + 总行数 + 块大小 + VERSION + MAGIC
+     */
+    static final int TRAILER_SIZE = 8 + 8 + 4 + 4 + 4;
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private PersonColumnarWriter() {
+    }
+
+    public static void write(Path path, Iterable<? extends Person> persons) throws IOException {
+        write(path, persons, DEFAULT_BLOCK_SIZE);
+    }
+
+    public static void write(Path path, Iterable<? extends Person> persons, int blockSize) throws IOException {
+        Objects.requireNonNull(persons, "persons");
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        KeyDictionary countries = new KeyDictionary();
+        KeyDictionary sexes = new KeyDictionary();
+        KeyDictionary names = new KeyDictionary();
+        int[][] columns = new int[COLUMNS][blockSize];
+        List<Block> blocks = new ArrayList<>();
+        long rows = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            Position position = new Position(out);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            int count = 0;
+            for (Person person : persons) {
+                columns[AGE][count] = Objects.requireNonNull(person.getAge(), "age");
+                //编码 +1，把 NULL_CODE(-1) 挪到 0，位压缩只处理非负数
+                columns[COUNTRY][count] = countries.encode(person.getCountry()) + 1;
+                columns[SEX][count] = sexes.encode(person.getSex()) + 1;
+                columns[NAME][count] = names.encode(person.getName()) + 1;
+                rows++;
+                if (++count == blockSize) {
+                    blocks.add(writeBlock(out, position, columns, count));
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                blocks.add(writeBlock(out, position, columns, count));
+            }
+
+            long footer = position.get();
+            writeDictionary(out, countries);
+            writeDictionary(out, sexes);
+            writeDictionary(out, names);
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                block.write(out);
+            }
+            out.writeLong(footer);
+            out.writeLong(rows);
+            out.writeInt(blockSize);
+            out.writeInt(VERSION);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    private static Block writeBlock(DataOutputStream out, Position position, int[][] columns, int count) throws IOException {
+        Block block = new Block(count);
+        for (int column = 0; column < COLUMNS; column++) {
+            int[] values = columns[column];
+            int min = values[0];
+            int max = values[0];
+            for (int i = 1; i < count; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            int width = BitPacking.width(min, max);
+            block.offsets[column] = position.get();
+            block.bases[column] = min;
+            block.widths[column] = width;
+            if (column == AGE) {
+                block.minAge = min;
+                block.maxAge = max;
+            }
+            for (long word : BitPacking.pack(values, count, min, width)) {
+                out.writeLong(word);
+            }
+        }
+        return block;
+    }
+
+    /**
+     * 字典：条目数 | 每个条目的起始偏移(条目数 + 1 个 int) | UTF-8 字节，
+     * 读取时可以按编码直接定位，不需要把整个字典解析成 String
+     */
+    private static void writeDictionary(DataOutputStream out, KeyDictionary dictionary) throws IOException {
+        int size = dictionary.size();
+        byte[][] entries = new byte[size][];
+        for (int code = 0; code < size; code++) {
+            entries[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeInt(size);
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] entry : entries) {
+            offset += entry.length;
+            out.writeInt(offset);
+        }
+        for (byte[] entry : entries) {
+            out.write(entry);
+        }
+    }
+
+    /**
+     * DataOutputStream.size() 是 int，超过 2G 会停在 Integer.MAX_VALUE，这里检查一下
+     */
+    private static final class Position {
+
+        private final DataOutputStream out;
+
+        Position(DataOutputStream out) {
+            this.out = out;
+        }
+
+        int get() {
+            int size = out.size();
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalStateException("columnar file larger than 2GB is not supported");
+            }
+            return size;
+        }
+    }
+
+    static final class Block {
+
+        /**
+         * 目录中每个块占的字节数：行数 + age 最小/最大值 + 每列(偏移 + base + 位宽)
+         */
+        static final int SIZE = 4 + 4 + 4 + COLUMNS * (4 + 4 + 1);
+
+        final int rows;
+
+        int minAge;
+
+        int maxAge;
+
+        final int[] offsets = new int[COLUMNS];
+
+        final int[] bases = new int[COLUMNS];
+
+        final int[] widths = new int[COLUMNS];
+
+        Block(int rows) {
+            this.rows = rows;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(rows);
+            out.writeInt(minAge);
+            out.writeInt(maxAge);
+            for (int column = 0; column < COLUMNS; column++) {
+                out.writeInt(offsets[column]);
+                out.writeInt(bases[column]);
+                out.writeByte(widths[column]);
+            }
+        }
+    }
+}
@@ -2,14 +2,20 @@ package com.qiuguan.stream.api.demo.create;
 
 
 import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.flow.CollectingSubscriber;
+import com.qiuguan.stream.api.demo.flow.FlowCollectors;
+import com.qiuguan.stream.api.demo.parallel.OrderedForEach;
+import com.qiuguan.stream.api.demo.source.MappedLineStream;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -38,6 +44,14 @@ public class CreateStreamApiDemo {
         Stream<String> stringStream = List.of("a", "b", "c").parallelStream();
         stringStream.forEach(System.out::println);
 
+        /*
+          forEach 乱序，forEachOrdered 有序但后面的任务都在等最左边的拆分。
+          orderedParallelForEach 并行执行 map，通过一个有界的重排窗口按遇到顺序交付，窗口满了生产者阻塞
+         */
+        OrderedForEach.Metrics metrics = OrderedForEach.orderedParallelForEach(
+                Stream.of("beiJin", "a", "b", "c", "d", "e").parallel().map(String::toUpperCase), System.out::println, 4);
+        System.out.println("metrics = " + metrics);
+
     }
 
     public static void testNotLimitStream() {
@@ -88,7 +102,9 @@ public class CreateStreamApiDemo {
 
     public static void testFileStream() {
         Path path = Paths.get("test.txt");
-        try (Stream<String> lines = Files.lines(path)) {
+        //Files.lines 在并行流中拆分效果很差，大文件用 MappedLineStream：内存映射，按换行符拆分，每个线程各自解码
+        //try (Stream<String> lines = Files.lines(path)) {
+        try (Stream<String> lines = MappedLineStream.lines(path)) {
             lines.forEach(System.out::println);
         } catch (IOException e) {
             e.printStackTrace();
@@ -129,4 +145,19 @@ public class CreateStreamApiDemo {
         Stream<String> stream = lists.stream();
         stream.forEach(System.out::println);
     }
+
+    /**
+     * 生产者线程推送的事件，用同一个 Collector 收集：订阅者按请求数量背压，内存上限是缓冲区容量
+     */
+    public static void testFlowSource() {
+        SubmissionPublisher<Person> events = new SubmissionPublisher<>();
+        CollectingSubscriber<Person, ?, Map<String, Long>> subscriber =
+                FlowCollectors.subscribe(Collectors.groupingBy(Person::getCountry, Collectors.counting()));
+        events.subscribe(subscriber);
+        events.submit(new Person("张三", 16, "中国"));
+        events.submit(new Person("Tony", 46, "美国"));
+        events.submit(new Person("田七", 26, "中国"));
+        events.close();
+        System.out.println(subscriber.result().join());
+    }
 }
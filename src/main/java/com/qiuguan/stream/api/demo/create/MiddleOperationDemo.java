@@ -1,6 +1,13 @@
 package com.qiuguan.stream.api.demo.create;
 
+import com.qiuguan.stream.api.demo.approx.ApproxOperators;
 import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.collector.FastCollectors;
+import com.qiuguan.stream.api.demo.lazy.PersonDerivedFields;
+import com.qiuguan.stream.api.demo.query.IndexedPersonCollection;
+import com.qiuguan.stream.api.demo.query.PersonFields;
+import com.qiuguan.stream.api.demo.sort.Codecs;
+import com.qiuguan.stream.api.demo.sort.ExternalSort;
 
 import java.util.Collection;
 import java.util.Comparator;
@@ -104,6 +111,26 @@ public class MiddleOperationDemo {
         peoples.stream()
                 .sorted(Comparator.comparing(Person::getAge))
                 .forEach(System.out::println);
+
+
+        System.out.println("--------------------------------------------------------");
+        /*
+          只需要排序后的前N个时，没必要对整个流排序：topK 只维护一个容量为N的堆，内存是O(N)
+          等价于 sorted(Comparator.comparing(Person::getAge)).limit(2)
+         */
+        peoples.stream()
+                .collect(FastCollectors.topKByInt(2, Person::getAge))
+                .forEach(System.out::println);
+
+        System.out.println("--------------------------------------------------------");
+        /*
+          数据比堆还大时 sorted() 会 OOM：sortedExternal 按内存预算分段排序后溢写到临时文件，再惰性地多路归并，
+          排序是稳定的，临时文件在流读完或关闭时删除
+         */
+        try (Stream<Person> sorted = ExternalSort.sortedExternal(peoples.stream(),
+                Comparator.comparing(Person::getName, Comparator.naturalOrder()), 64L << 20, Codecs.persons())) {
+            sorted.forEach(System.out::println);
+        }
     }
 
     public static void testMapTo() {
@@ -167,6 +194,12 @@ public class MiddleOperationDemo {
                 //返回的是一个Stream流，所以用Stream.of方法将每一个转换后的元素单独创建一个流，最终flatMap会将这些流合并
                 .flatMap(person -> Stream.of(person.getName()))
                 .forEach(System.out::println);
+
+
+        //规范化后的姓名是派生属性，每个 Person 只计算一次，同一批数据再跑一遍流水线直接取缓存
+        peoples.stream()
+                .map(PersonDerivedFields.NORMALIZED_NAME)
+                .forEach(System.out::println);
     }
 
     public static void testFilter() {
@@ -184,6 +217,14 @@ public class MiddleOperationDemo {
                 .filter(person -> person.getAge() > 30)
                 .forEach(System.out::println);
 
+        /*
+          同样的过滤在 List 上每次都是全表扫描；放进带索引的集合后，age 的范围条件直接走有序索引，
+          explain 可以看到选了哪个索引
+         */
+        IndexedPersonCollection indexed = new IndexedPersonCollection(peoples);
+        indexed.filter(PersonFields.AGE.gt(30)).forEach(System.out::println);
+        System.out.println(indexed.explain(PersonFields.AGE.gt(30)));
+
         System.out.println("--------------------------------------------------------");
          /*
           提取流中的前2个元素，如果指定数量大于流中元素数量，则返回所有元素
@@ -220,5 +261,16 @@ public class MiddleOperationDemo {
                 .distinct()
                 .forEach(System.out::println);
 
+        System.out.println("--------------------------------------------------------");
+
+        /*
+         不同的值非常多时 distinct() 的 HashSet 会耗尽内存，可以换成固定内存的近似算子：
+         布隆过滤器去重会以约 1% 的概率丢掉没见过的值，HyperLogLog 只估计不同值的个数
+         */
+        ApproxOperators.distinctProbabilistic(peoples.stream().map(Person::getName), 1000, 0.01)
+                .forEach(System.out::println);
+        Long names = peoples.stream().map(Person::getName).collect(ApproxOperators.approxDistinctCount(0.01));
+        System.out.println("names = " + names);
+
     }
 }
@@ -1,5 +1,7 @@
 package com.qiuguan.stream.api.demo.create;
 
+import com.qiuguan.stream.api.demo.parallel.SafeReduce;
+
 import java.util.List;
 
 /**
@@ -17,5 +19,10 @@ public class ParallelReduceDemo {
                 });
 
         System.out.println("reduce = " + reduce);
+
+        //a - b 不满足结合律，0 也不是它的单位元。SafeReduce 先抽样校验，校验不通过就退回串行归约，结果和串行流一致: -10
+        SafeReduce<Integer> safeReduce = SafeReduce.of(0, (a, b) -> a - b);
+        System.out.println("verify = " + safeReduce.verify(List.of(1, 2, 3, 4)));
+        System.out.println("safeReduce = " + safeReduce.reduce(List.of(1, 2, 3, 4)));
     }
 }
@@ -1,7 +1,19 @@
 package com.qiuguan.stream.api.demo.create;
 
 import com.qiuguan.stream.api.demo.bean.Person;
-
+import com.qiuguan.stream.api.demo.cache.MemoizedQueries;
+import com.qiuguan.stream.api.demo.collector.ConcurrentToMap;
+import com.qiuguan.stream.api.demo.collector.FastCollectors;
+import com.qiuguan.stream.api.demo.collector.IntCollectors;
+import com.qiuguan.stream.api.demo.collector.IntStatistics;
+import com.qiuguan.stream.api.demo.lazy.PersonDerivedFields;
+import com.qiuguan.stream.api.demo.parallel.ShortCircuit;
+import com.qiuguan.stream.api.demo.query.IndexedPersonCollection;
+import com.qiuguan.stream.api.demo.query.PersonFields;
+import com.qiuguan.stream.api.demo.query.PersonQuery;
+import com.qiuguan.stream.api.demo.table.PersonTable;
+
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -44,6 +56,10 @@ public class TerminalOperationDemo {
                         (k1, k2) -> k2));
         personCountryMap.forEach((k, v) -> System.out.println("key = " + k + " value = " + v));
 
+        //诊断模式遇到重复的 key 不抛异常，而是报告所有重复的 key 和出现次数
+        ConcurrentToMap.Report<String, Person> report = ConcurrentToMap.of(Person::getName, (Person person) -> person).diagnose(persons.stream());
+        System.out.println("重复的key: " + report.getDuplicateKeys());
+
         System.out.println("-------------------------------------------------");
 
         //分组
@@ -53,6 +69,15 @@ public class TerminalOperationDemo {
         Map<String, Long> collect2 = persons.stream().collect(Collectors.groupingBy(Person::getCountry, Collectors.counting()));
         collect2.forEach((k, v) -> System.out.println("key = " + k + " value = " + v));
 
+        //国家只有几种取值，写入 PersonTable 时已经字典编码成 int，分组计数就是 long[] 下标自增，没有字符串的 hashCode 和 equals
+        PersonTable table = PersonTable.of(persons);
+        Map<String, Long> collect3 = FastCollectors.countingByEncoded(table.countryDictionary(), table.countryCodes());
+        collect3.forEach((k, v) -> System.out.println("key = " + k + " value = " + v));
+
+        //按国家所在的大洲分组，大洲是从 country 派生出来的，每个 Person 只查一次
+        Map<String, Long> collect4 = persons.stream().collect(Collectors.groupingBy(PersonDerivedFields.REGION, Collectors.counting()));
+        collect4.forEach((k, v) -> System.out.println("key = " + k + " value = " + v));
+
         System.out.println("-------------------------------------------------");
 
         //分区,年龄大于30的分一个区，小于等于30的分一个区
@@ -70,6 +95,17 @@ public class TerminalOperationDemo {
 
         System.out.println("-------------------------------------------------");
 
+        //同一份不可变数据上反复执行的分组、分区，按(数据源身份, 查询描述)缓存结果，第二次直接命中；缓存的结果是共享的，不要修改
+        MemoizedQueries queries = MemoizedQueries.withMaximumSize(100);
+        for (int i = 0; i < 3; i++) {
+            queries.collect(persons, "groupingBy(country)", Collectors.groupingBy(Person::getCountry));
+            queries.collect(persons, "partitioningBy(age > 30)", Collectors.partitioningBy((Person person) -> person.getAge() > 30));
+            queries.collect(persons, "joining(name, #)", Collectors.mapping(Person::getName, Collectors.joining("#")));
+        }
+        System.out.println("stats = " + queries.stats());
+
+        System.out.println("-------------------------------------------------");
+
         //按照年龄进行统计
         IntSummaryStatistics ageSummary = persons.stream().collect(Collectors.summarizingInt(Person::getAge));
         System.out.println("年龄的平均值 = " + ageSummary.getAverage());
@@ -106,6 +142,10 @@ public class TerminalOperationDemo {
                 .map(Person::getName)
                 .reduce("", (a, b) -> a + b + ",");
         System.out.println("reduce1 = " + reduceName);
+
+        //年龄大于30的人的年龄之和：查询按结构编译成一个融合的循环，没有 Sink 链和 lambda 调用
+        long ageSum = PersonQuery.from(persons).where(PersonFields.AGE.gt(30)).select(PersonFields.AGE).sum();
+        System.out.println("ageSum = " + ageSum);
     }
     public static void testAggregate() {
         List<Person> persons = List.of(
@@ -137,6 +177,16 @@ public class TerminalOperationDemo {
         IntStream intStream1 = persons.stream().mapToInt(Person::getAge);
         intStream1.average().ifPresent(System.out::println);
 
+        //一遍扫描拿到 sum、平均值、方差和分位数，不用每个统计量都建一次流
+        IntStatistics ageStatistics = persons.stream().collect(IntCollectors.summarizing(Person::getAge));
+        System.out.println("sum = " + ageStatistics.getSum() + ", average = " + ageStatistics.getAverage()
+                + ", stddev = " + ageStatistics.getStandardDeviation() + ", median = " + ageStatistics.getMedian());
+
+        //每个国家的平均年龄，分组的下游直接累加 int
+        Map<String, Double> averageAgeByCountry = persons.stream()
+                .collect(IntCollectors.groupingByInt(Person::getCountry, Person::getAge, IntCollectors.averaging()));
+        System.out.println(averageAgeByCountry);
+
     }
 
     public static void testMatch() {
@@ -177,5 +227,19 @@ public class TerminalOperationDemo {
         //查找任意一个元素
         Optional<Person> findAny = peoples.stream().findAny();
         findAny.ifPresent(System.out::println);
+
+        System.out.println("------------------------------------");
+
+        //谓词很贵时，找到答案就取消其他拆分任务；带时间预算的版本超时返回 UNKNOWN，而不是猜一个结果
+        ShortCircuit.Match match = ShortCircuit.anyMatch(peoples.parallelStream(), person -> person.getAge() > 40, Duration.ofMillis(100));
+        System.out.println("anyMatch in 100ms = " + match);
+        ShortCircuit.findFirst(peoples.parallelStream(), person -> person.getAge() > 20).ifPresent(System.out::println);
+
+        System.out.println("------------------------------------");
+
+        //有 age 索引时，anyMatch(age > 100)、noneMatch(age > 30) 只是一次二分查找，和行数无关
+        IndexedPersonCollection indexed = new IndexedPersonCollection(peoples);
+        System.out.println("indexed anyMatch = " + indexed.anyMatch(PersonFields.AGE.gt(100)));
+        System.out.println("indexed noneMatch = " + indexed.noneMatch(PersonFields.AGE.gt(30)));
     }
 }
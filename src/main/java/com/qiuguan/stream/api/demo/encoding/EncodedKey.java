@@ -0,0 +1,55 @@
+package com.qiuguan.stream.api.demo.encoding;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 17:35:20 Sunday
+ * <p>
+ * 某个低基数字符串属性(国家、性别)的编码方式：元素 -&gt; 字典中的 int 编码。
+ * 分组收集器(见 {@link com.qiuguan.stream.api.demo.collector.FastCollectors#groupingByEncoded})用编码做数组下标，
+ * 不再对 "中国"、"美国" 这样的字符串反复计算哈希和 equals，最后再通过字典还原成字符串 key。
+ * <ul>
+ *     <li>{@link #of}：只是方便的写法，每行仍然要在字典里对字符串算一次哈希和 equals，和 {@code groupingBy} 相比没有提速</li>
+ *     <li>{@link #ofCode}：元素上已经带着编码，每行只是读取一个 int</li>
+ * </ul>
+ */
+public final class EncodedKey<T> {
+
+    private final KeyDictionary dictionary;
+
+    private final ToIntFunction<? super T> encoder;
+
+    private EncodedKey(KeyDictionary dictionary, ToIntFunction<? super T> encoder) {
+        this.dictionary = Objects.requireNonNull(dictionary, "dictionary");
+        this.encoder = Objects.requireNonNull(encoder, "encoder");
+    }
+
+    /**
+     * 方便的写法：每行都要调用 {@link KeyDictionary#encode}，字符串的哈希和 equals 一次都没有省掉。
+     * 要拿到"每行一次 long[] 自增"的效果，请在写入时编码，直接对编码列计数(比如 {@link com.qiuguan.stream.api.demo.table.PersonTable#countryCodes()}
+     * 配合 {@link com.qiuguan.stream.api.demo.collector.FastCollectors#countingByEncoded(KeyDictionary, java.util.stream.IntStream)})
+     */
+    public static <T> EncodedKey<T> of(KeyDictionary dictionary, Function<? super T, String> attribute) {
+        Objects.requireNonNull(attribute, "attribute");
+        return new EncodedKey<>(dictionary, item -> dictionary.encode(attribute.apply(item)));
+    }
+
+    public static <T> EncodedKey<T> ofCode(KeyDictionary dictionary, ToIntFunction<? super T> code) {
+        return new EncodedKey<>(dictionary, code);
+    }
+
+    public int code(T item) {
+        return encoder.applyAsInt(item);
+    }
+
+    public String decode(int code) {
+        return dictionary.decode(code);
+    }
+
+    public KeyDictionary dictionary() {
+        return dictionary;
+    }
+}
@@ -0,0 +1,95 @@
+package com.qiuguan.stream.api.demo.encoding;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 11:02:16 Sunday
+ * <p>
+ * 字典编码：把低基数的字符串(国家、性别，或者重复很多的姓名)在写入时一次性映射成从0开始连续的 int 编码，
+ * 之后的比较、分组都只操作 int，最后再通过 {@link #decode(int)} 还原成字符串。
+ * <p>
+ * 相同的字符串只保存一份，所以它同时也起到了字符串共享(intern)的作用。
+ * null 固定编码为 {@link #NULL_CODE}，不占用字典空间。
+ * <p>
+ * 线程安全：已有的 key 查询无锁，新 key 的分配加锁，保证编码连续。
+ */
+public final class KeyDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    private volatile String[] keys;
+
+    private int size;
+
+    public KeyDictionary() {
+        this(16);
+    }
+
+    public KeyDictionary(int expectedSize) {
+        this.keys = new String[Math.max(1, expectedSize)];
+    }
+
+    public int encode(String key) {
+        if (key == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(key);
+        return code != null ? code : add(key);
+    }
+
+    private synchronized int add(String key) {
+        Integer code = codes.get(key);
+        if (code != null) {
+            return code;
+        }
+        String[] current = keys;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size << 1);
+        }
+        current[size] = key;
+        //先写数组再发布编码，拿到编码的线程一定能 decode 出来
+        keys = current;
+        codes.put(key, size);
+        return size++;
+    }
+
+    /**
+     * 只查询不分配，不存在时返回 {@link #NULL_CODE}，查询条件用它，避免把不存在的值写进字典
+     */
+    public int codeOf(String key) {
+        if (key == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(key, NULL_CODE);
+    }
+
+    public String decode(int code) {
+        return code == NULL_CODE ? null : keys[code];
+    }
+
+    /**
+     * 当前已分配的编码个数，编码范围是 [0, size())，可以直接作为数组长度使用
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * 把按编码下标计数的数组还原成 key -&gt; 个数，计数为0的编码不出现在结果里，结果按编码顺序(即首次出现的顺序)排列
+     */
+    public Map<String, Long> decodeCounts(long[] counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(decode(code), counts[code]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,165 @@
+package com.qiuguan.stream.api.demo.flow;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 07:15:48 Monday
+ * <p>
+ * 用普通的 {@link Collector} 收集 Flow 中的元素，由 {@link FlowCollectors#subscribe} 创建。
+ * <ul>
+ *     <li>onNext 只把元素放进 {@link RingBuffer}，累加在 executor 上的 drain 循环里进行，发布者线程不会被收集器拖慢</li>
+ *     <li>未完成的请求总数永远不超过缓冲区容量：订阅时请求 capacity 个，之后每消费 requestSize 个再补请求这么多，
+ *     缓冲区不会溢出，内存上限就是缓冲区容量</li>
+ *     <li>结果通过 {@link #result()} 拿到；取消这个 future 会同时取消订阅</li>
+ * </ul>
+ */
+public final class CollectingSubscriber<T, A, R> implements Flow.Subscriber<T> {
+
+    private final A container;
+
+    private final BiConsumer<A, ? super T> accumulator;
+
+    private final Function<A, R> finisher;
+
+    private final RingBuffer<T> buffer;
+
+    private final int requestSize;
+
+    private final Executor executor;
+
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+
+    /**
+     * drain 循环的重入计数，保证同一时间只有一个线程在累加
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription subscription;
+
+    private volatile boolean done;
+
+    private volatile Throwable error;
+
+    /**
+     * 只在 drain 循环中读写
+     */
+    private int consumed;
+
+    CollectingSubscriber(Collector<? super T, A, R> collector, int bufferCapacity, int requestSize, Executor executor) {
+        this.container = collector.supplier().get();
+        this.accumulator = collector.accumulator();
+        this.finisher = collector.finisher();
+        this.buffer = new RingBuffer<>(bufferCapacity);
+        if (requestSize <= 0 || requestSize > buffer.capacity()) {
+            throw new IllegalArgumentException("requestSize must be between 1 and " + buffer.capacity() + ": " + requestSize);
+        }
+        this.requestSize = requestSize;
+        this.executor = Objects.requireNonNull(executor, "executor");
+        result.whenComplete((value, e) -> {
+            Flow.Subscription s = subscription;
+            if (result.isCancelled() && s != null) {
+                s.cancel();
+            }
+        });
+    }
+
+    public CompletableFuture<R> result() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (this.subscription != null) {
+            //规范 2.5：已经有订阅时取消新的订阅
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        if (result.isDone()) {
+            //订阅之前 result 已经被取消，whenComplete 那时还看不到 subscription，这里补上取消，不再请求
+            subscription.cancel();
+            return;
+        }
+        subscription.request(buffer.capacity());
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (!buffer.offer(Objects.requireNonNull(item, "item"))) {
+            //发布者没有遵守请求数量
+            subscription.cancel();
+            onError(new IllegalStateException("publisher emitted more than requested"));
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = Objects.requireNonNull(throwable, "throwable");
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        while (true) {
+            if (result.isDone()) {
+                return;
+            }
+            T item;
+            while ((item = buffer.poll()) != null) {
+                try {
+                    accumulator.accept(container, item);
+                } catch (Throwable e) {
+                    subscription.cancel();
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (++consumed == requestSize) {
+                    consumed = 0;
+                    subscription.request(requestSize);
+                }
+            }
+            //先读 done 再确认缓冲区为空，onComplete 之前的元素一定已经在缓冲区里
+            if (done && buffer.isEmpty()) {
+                Throwable e = error;
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    try {
+                        result.complete(finisher.apply(container));
+                    } catch (Throwable failure) {
+                        result.completeExceptionally(failure);
+                    }
+                }
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+}
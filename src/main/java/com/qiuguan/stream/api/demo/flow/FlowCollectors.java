@@ -0,0 +1,74 @@
+package com.qiuguan.stream.api.demo.flow;
+
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 07:46:22 Monday
+ * <p>
+ * Stream/Collector 和 {@link java.util.concurrent.Flow} 之间的桥。流水线都是拉模式、同步的，
+ * 生产者线程推过来的事件也想用同一套 Collector 处理，又不想先全部缓存起来：
+ * <pre>
+ *     SubmissionPublisher&lt;Person&gt; events = new SubmissionPublisher&lt;&gt;();
+ *     CollectingSubscriber&lt;Person, ?, Map&lt;String, Long&gt;&gt; subscriber =
+ *             FlowCollectors.subscribe(Collectors.groupingBy(Person::getCountry, Collectors.counting()));
+ *     events.subscribe(subscriber);
+ *     persons.forEach(events::submit);
+ *     events.close();
+ *     Map&lt;String, Long&gt; counts = subscriber.result().join();
+ * </pre>
+ * 反过来，{@link #publisher} 把任意 Spliterator 变成按请求、按批发送的 Publisher。
+ */
+public final class FlowCollectors {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private FlowCollectors() {
+    }
+
+    public static <T, A, R> CollectingSubscriber<T, A, R> subscribe(Collector<? super T, A, R> collector) {
+        return subscribe(collector, DEFAULT_BUFFER_CAPACITY, DEFAULT_BUFFER_CAPACITY / 4, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param bufferCapacity 缓冲区容量，也是未完成请求数的上限(向上取 2 的幂)
+     * @param requestSize    每消费这么多个元素补一次请求，不能超过缓冲区容量
+     * @param executor       执行累加的线程池
+     */
+    public static <T, A, R> CollectingSubscriber<T, A, R> subscribe(Collector<? super T, A, R> collector,
+                                                                     int bufferCapacity, int requestSize, Executor executor) {
+        return new CollectingSubscriber<>(collector, bufferCapacity, requestSize, executor);
+    }
+
+    public static <T> Flow.Publisher<T> publisher(Spliterator<T> spliterator) {
+        return publisher(spliterator, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public static <T> Flow.Publisher<T> publisher(Spliterator<T> spliterator, int batchSize, Executor executor) {
+        return new SpliteratorPublisher<>(spliterator, batchSize, executor);
+    }
+
+    /**
+     * 流是惰性的，订阅之后才开始拉取元素
+     */
+    public static <T> Flow.Publisher<T> publisher(Stream<T> stream) {
+        return publisher(stream.spliterator());
+    }
+
+    /**
+     * 订阅并返回收集结果
+     */
+    public static <T, R> CompletableFuture<R> collect(Flow.Publisher<T> publisher, Collector<? super T, ?, R> collector) {
+        CollectingSubscriber<T, ?, R> subscriber = subscribe(collector);
+        publisher.subscribe(subscriber);
+        return subscriber.result();
+    }
+}
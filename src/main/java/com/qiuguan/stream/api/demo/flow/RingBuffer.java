@@ -0,0 +1,78 @@
+package com.qiuguan.stream.api.demo.flow;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 07:02:33 Monday
+ * <p>
+ * 有界、无锁的单生产者单消费者环形缓冲区。Flow 规范保证 onNext 是串行调用的，消费端又只有一个 drain 循环，
+ * 所以两端各自只有一个线程，不需要 CAS：
+ * <ul>
+ *     <li>生产者只写 tail，消费者只写 head，都用 lazySet 发布，读对方的位置用 volatile 读</li>
+ *     <li>容量向上取 2 的幂，下标用位与代替取模</li>
+ * </ul>
+ */
+public final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 只能由生产者线程调用，满了返回 false
+     */
+    public boolean offer(T value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            return false;
+        }
+        slots.lazySet((int) t & mask, value);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 只能由消费者线程调用，空了返回 null
+     */
+    public T poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) h & mask;
+        T value = slots.get(index);
+        slots.lazySet(index, null);
+        head.lazySet(h + 1);
+        return value;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
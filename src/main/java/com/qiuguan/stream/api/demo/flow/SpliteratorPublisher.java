@@ -0,0 +1,145 @@
+package com.qiuguan.stream.api.demo.flow;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 07:31:06 Monday
+ * <p>
+ * 把 {@link Spliterator} 包装成 {@link Flow.Publisher}，由 {@link FlowCollectors#publisher} 创建。
+ * <ul>
+ *     <li>只发送订阅者请求的数量，请求耗尽就停下，不会预读</li>
+ *     <li>在 executor 上按批发送，每批最多 batchSize 个，一批发完把线程让出来，再重新提交剩下的工作</li>
+ *     <li>Spliterator 只能遍历一次，所以只接受一个订阅者，之后的订阅者收到 IllegalStateException</li>
+ * </ul>
+ */
+public final class SpliteratorPublisher<T> implements Flow.Publisher<T> {
+
+    private final Spliterator<T> spliterator;
+
+    private final int batchSize;
+
+    private final Executor executor;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    SpliteratorPublisher(Spliterator<T> spliterator, int batchSize, Executor executor) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.spliterator = Objects.requireNonNull(spliterator, "spliterator");
+        this.batchSize = batchSize;
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("spliterator publisher allows only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new BatchSubscription(subscriber));
+    }
+
+    private final class BatchSubscription implements Flow.Subscription, Consumer<T>, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private volatile boolean cancelled;
+
+        /**
+         * 非法请求的参数，在发送线程上以 onError 通知
+         */
+        private volatile long illegalRequest;
+
+        BatchSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                //规范 3.9
+                illegalRequest = n;
+                n = 1;
+            }
+            long previous;
+            long next;
+            do {
+                previous = demand.get();
+                next = previous + n < 0 ? Long.MAX_VALUE : previous + n;
+            } while (!demand.compareAndSet(previous, next));
+            if (previous == 0) {
+                //从 0 变为正数的那次请求负责启动发送，发送期间的请求只增加 demand
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void accept(T item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (illegalRequest != 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("non-positive request: " + illegalRequest));
+                return;
+            }
+            long requested = demand.get();
+            long emitted = 0;
+            long limit = Math.min(requested, batchSize);
+            try {
+                while (emitted < limit && !cancelled) {
+                    if (!spliterator.tryAdvance(this)) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    emitted++;
+                }
+            } catch (Throwable e) {
+                cancelled = true;
+                subscriber.onError(e);
+                return;
+            }
+            if (spliterator.hasCharacteristics(Spliterator.SIZED) && spliterator.estimateSize() == 0 && !cancelled) {
+                //大小已知时不必等下一次请求才发现已经发完
+                cancelled = true;
+                subscriber.onComplete();
+                return;
+            }
+            if (demand.addAndGet(-emitted) > 0 && !cancelled) {
+                //还有请求没满足，让出线程后继续
+                executor.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 14:26:51 Monday
+ * <p>
+ * {@link InstrumentedStream#mapToDouble} 等返回的 DoubleStream，和 {@link InstrumentedIntStream} 一样只统计终止操作
+ */
+final class InstrumentedDoubleStream implements DoubleStream {
+
+    private final DoubleStream delegate;
+
+    private final Run run;
+
+    private final int depth;
+
+    InstrumentedDoubleStream(DoubleStream delegate, Run run, int depth) {
+        this.delegate = delegate;
+        this.run = run;
+        this.depth = depth;
+    }
+
+    private DoubleStream next(DoubleStream stream) {
+        return new InstrumentedDoubleStream(stream, run, depth);
+    }
+
+    @Override
+    public DoubleStream filter(DoublePredicate predicate) {
+        return next(delegate.filter(predicate));
+    }
+
+    @Override
+    public DoubleStream map(DoubleUnaryOperator mapper) {
+        return next(delegate.map(mapper));
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        return new InstrumentedStream<>(delegate.mapToObj(mapper), run, depth);
+    }
+
+    @Override
+    public IntStream mapToInt(DoubleToIntFunction mapper) {
+        return new InstrumentedIntStream(delegate.mapToInt(mapper), run, depth);
+    }
+
+    @Override
+    public LongStream mapToLong(DoubleToLongFunction mapper) {
+        return new InstrumentedLongStream(delegate.mapToLong(mapper), run, depth);
+    }
+
+    @Override
+    public DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
+        return next(delegate.flatMap(mapper));
+    }
+
+    @Override
+    public DoubleStream mapMulti(DoubleMapMultiConsumer mapper) {
+        return next(delegate.mapMulti(mapper));
+    }
+
+    @Override
+    public DoubleStream distinct() {
+        return next(delegate.distinct());
+    }
+
+    @Override
+    public DoubleStream sorted() {
+        return next(delegate.sorted());
+    }
+
+    @Override
+    public DoubleStream peek(DoubleConsumer action) {
+        return next(delegate.peek(action));
+    }
+
+    @Override
+    public DoubleStream limit(long maxSize) {
+        return next(delegate.limit(maxSize));
+    }
+
+    @Override
+    public DoubleStream skip(long n) {
+        return next(delegate.skip(n));
+    }
+
+    @Override
+    public DoubleStream takeWhile(DoublePredicate predicate) {
+        return next(delegate.takeWhile(predicate));
+    }
+
+    @Override
+    public DoubleStream dropWhile(DoublePredicate predicate) {
+        return next(delegate.dropWhile(predicate));
+    }
+
+    @Override
+    public void forEach(DoubleConsumer action) {
+        run.terminal("forEach", () -> {
+            delegate.forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachOrdered(DoubleConsumer action) {
+        run.terminal("forEachOrdered", () -> {
+            delegate.forEachOrdered(action);
+            return null;
+        });
+    }
+
+    @Override
+    public double[] toArray() {
+        return run.terminal("toArray", delegate::toArray);
+    }
+
+    @Override
+    public double reduce(double identity, DoubleBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(identity, op));
+    }
+
+    @Override
+    public OptionalDouble reduce(DoubleBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(op));
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return run.terminal("collect", () -> delegate.collect(supplier, accumulator, (left, right) -> {
+            run.combine();
+            combiner.accept(left, right);
+        }));
+    }
+
+    @Override
+    public double sum() {
+        return run.terminal("sum", delegate::sum);
+    }
+
+    @Override
+    public OptionalDouble min() {
+        return run.terminal("min", delegate::min);
+    }
+
+    @Override
+    public OptionalDouble max() {
+        return run.terminal("max", delegate::max);
+    }
+
+    @Override
+    public long count() {
+        return run.terminal("count", delegate::count);
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return run.terminal("average", delegate::average);
+    }
+
+    @Override
+    public DoubleSummaryStatistics summaryStatistics() {
+        return run.terminal("summaryStatistics", delegate::summaryStatistics);
+    }
+
+    @Override
+    public boolean anyMatch(DoublePredicate predicate) {
+        return run.terminal("anyMatch", () -> delegate.anyMatch(predicate));
+    }
+
+    @Override
+    public boolean allMatch(DoublePredicate predicate) {
+        return run.terminal("allMatch", () -> delegate.allMatch(predicate));
+    }
+
+    @Override
+    public boolean noneMatch(DoublePredicate predicate) {
+        return run.terminal("noneMatch", () -> delegate.noneMatch(predicate));
+    }
+
+    @Override
+    public OptionalDouble findFirst() {
+        return run.terminal("findFirst", delegate::findFirst);
+    }
+
+    @Override
+    public OptionalDouble findAny() {
+        return run.terminal("findAny", delegate::findAny);
+    }
+
+    @Override
+    public Stream<Double> boxed() {
+        return new InstrumentedStream<>(delegate.boxed(), run, depth);
+    }
+
+    @Override
+    public DoubleStream sequential() {
+        delegate.sequential();
+        return this;
+    }
+
+    @Override
+    public DoubleStream parallel() {
+        delegate.parallel();
+        return this;
+    }
+
+    @Override
+    public DoubleStream unordered() {
+        return next(delegate.unordered());
+    }
+
+    @Override
+    public DoubleStream onClose(Runnable closeHandler) {
+        delegate.onClose(closeHandler);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return delegate.isParallel();
+    }
+}
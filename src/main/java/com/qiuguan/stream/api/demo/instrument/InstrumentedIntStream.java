@@ -0,0 +1,269 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 14:12:08 Monday
+ * <p>
+ * {@link InstrumentedStream#mapToInt} 等返回的 IntStream。中间操作不单独统计阶段，只是把包装传下去，
+ * 保证 {@code sum()}、{@code average()} 这类终止操作同样计入 wallTime、runs 和 JFR 事件。
+ */
+final class InstrumentedIntStream implements IntStream {
+
+    private final IntStream delegate;
+
+    private final Run run;
+
+    private final int depth;
+
+    InstrumentedIntStream(IntStream delegate, Run run, int depth) {
+        this.delegate = delegate;
+        this.run = run;
+        this.depth = depth;
+    }
+
+    private IntStream next(IntStream stream) {
+        return new InstrumentedIntStream(stream, run, depth);
+    }
+
+    @Override
+    public IntStream filter(IntPredicate predicate) {
+        return next(delegate.filter(predicate));
+    }
+
+    @Override
+    public IntStream map(IntUnaryOperator mapper) {
+        return next(delegate.map(mapper));
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
+        return new InstrumentedStream<>(delegate.mapToObj(mapper), run, depth);
+    }
+
+    @Override
+    public LongStream mapToLong(IntToLongFunction mapper) {
+        return new InstrumentedLongStream(delegate.mapToLong(mapper), run, depth);
+    }
+
+    @Override
+    public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
+        return new InstrumentedDoubleStream(delegate.mapToDouble(mapper), run, depth);
+    }
+
+    @Override
+    public IntStream flatMap(IntFunction<? extends IntStream> mapper) {
+        return next(delegate.flatMap(mapper));
+    }
+
+    @Override
+    public IntStream mapMulti(IntMapMultiConsumer mapper) {
+        return next(delegate.mapMulti(mapper));
+    }
+
+    @Override
+    public IntStream distinct() {
+        return next(delegate.distinct());
+    }
+
+    @Override
+    public IntStream sorted() {
+        return next(delegate.sorted());
+    }
+
+    @Override
+    public IntStream peek(IntConsumer action) {
+        return next(delegate.peek(action));
+    }
+
+    @Override
+    public IntStream limit(long maxSize) {
+        return next(delegate.limit(maxSize));
+    }
+
+    @Override
+    public IntStream skip(long n) {
+        return next(delegate.skip(n));
+    }
+
+    @Override
+    public IntStream takeWhile(IntPredicate predicate) {
+        return next(delegate.takeWhile(predicate));
+    }
+
+    @Override
+    public IntStream dropWhile(IntPredicate predicate) {
+        return next(delegate.dropWhile(predicate));
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        run.terminal("forEach", () -> {
+            delegate.forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachOrdered(IntConsumer action) {
+        run.terminal("forEachOrdered", () -> {
+            delegate.forEachOrdered(action);
+            return null;
+        });
+    }
+
+    @Override
+    public int[] toArray() {
+        return run.terminal("toArray", delegate::toArray);
+    }
+
+    @Override
+    public int reduce(int identity, IntBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(identity, op));
+    }
+
+    @Override
+    public OptionalInt reduce(IntBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(op));
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return run.terminal("collect", () -> delegate.collect(supplier, accumulator, (left, right) -> {
+            run.combine();
+            combiner.accept(left, right);
+        }));
+    }
+
+    @Override
+    public int sum() {
+        return run.terminal("sum", delegate::sum);
+    }
+
+    @Override
+    public OptionalInt min() {
+        return run.terminal("min", delegate::min);
+    }
+
+    @Override
+    public OptionalInt max() {
+        return run.terminal("max", delegate::max);
+    }
+
+    @Override
+    public long count() {
+        return run.terminal("count", delegate::count);
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return run.terminal("average", delegate::average);
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics() {
+        return run.terminal("summaryStatistics", delegate::summaryStatistics);
+    }
+
+    @Override
+    public boolean anyMatch(IntPredicate predicate) {
+        return run.terminal("anyMatch", () -> delegate.anyMatch(predicate));
+    }
+
+    @Override
+    public boolean allMatch(IntPredicate predicate) {
+        return run.terminal("allMatch", () -> delegate.allMatch(predicate));
+    }
+
+    @Override
+    public boolean noneMatch(IntPredicate predicate) {
+        return run.terminal("noneMatch", () -> delegate.noneMatch(predicate));
+    }
+
+    @Override
+    public OptionalInt findFirst() {
+        return run.terminal("findFirst", delegate::findFirst);
+    }
+
+    @Override
+    public OptionalInt findAny() {
+        return run.terminal("findAny", delegate::findAny);
+    }
+
+    @Override
+    public LongStream asLongStream() {
+        return new InstrumentedLongStream(delegate.asLongStream(), run, depth);
+    }
+
+    @Override
+    public DoubleStream asDoubleStream() {
+        return new InstrumentedDoubleStream(delegate.asDoubleStream(), run, depth);
+    }
+
+    @Override
+    public Stream<Integer> boxed() {
+        return new InstrumentedStream<>(delegate.boxed(), run, depth);
+    }
+
+    @Override
+    public IntStream sequential() {
+        delegate.sequential();
+        return this;
+    }
+
+    @Override
+    public IntStream parallel() {
+        delegate.parallel();
+        return this;
+    }
+
+    @Override
+    public IntStream unordered() {
+        return next(delegate.unordered());
+    }
+
+    @Override
+    public IntStream onClose(Runnable closeHandler) {
+        delegate.onClose(closeHandler);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return delegate.isParallel();
+    }
+}
@@ -0,0 +1,263 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 14:20:33 Monday
+ * <p>
+ * {@link InstrumentedStream#mapToLong} 等返回的 LongStream，和 {@link InstrumentedIntStream} 一样只统计终止操作
+ */
+final class InstrumentedLongStream implements LongStream {
+
+    private final LongStream delegate;
+
+    private final Run run;
+
+    private final int depth;
+
+    InstrumentedLongStream(LongStream delegate, Run run, int depth) {
+        this.delegate = delegate;
+        this.run = run;
+        this.depth = depth;
+    }
+
+    private LongStream next(LongStream stream) {
+        return new InstrumentedLongStream(stream, run, depth);
+    }
+
+    @Override
+    public LongStream filter(LongPredicate predicate) {
+        return next(delegate.filter(predicate));
+    }
+
+    @Override
+    public LongStream map(LongUnaryOperator mapper) {
+        return next(delegate.map(mapper));
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(LongFunction<? extends U> mapper) {
+        return new InstrumentedStream<>(delegate.mapToObj(mapper), run, depth);
+    }
+
+    @Override
+    public IntStream mapToInt(LongToIntFunction mapper) {
+        return new InstrumentedIntStream(delegate.mapToInt(mapper), run, depth);
+    }
+
+    @Override
+    public DoubleStream mapToDouble(LongToDoubleFunction mapper) {
+        return new InstrumentedDoubleStream(delegate.mapToDouble(mapper), run, depth);
+    }
+
+    @Override
+    public LongStream flatMap(LongFunction<? extends LongStream> mapper) {
+        return next(delegate.flatMap(mapper));
+    }
+
+    @Override
+    public LongStream mapMulti(LongMapMultiConsumer mapper) {
+        return next(delegate.mapMulti(mapper));
+    }
+
+    @Override
+    public LongStream distinct() {
+        return next(delegate.distinct());
+    }
+
+    @Override
+    public LongStream sorted() {
+        return next(delegate.sorted());
+    }
+
+    @Override
+    public LongStream peek(LongConsumer action) {
+        return next(delegate.peek(action));
+    }
+
+    @Override
+    public LongStream limit(long maxSize) {
+        return next(delegate.limit(maxSize));
+    }
+
+    @Override
+    public LongStream skip(long n) {
+        return next(delegate.skip(n));
+    }
+
+    @Override
+    public LongStream takeWhile(LongPredicate predicate) {
+        return next(delegate.takeWhile(predicate));
+    }
+
+    @Override
+    public LongStream dropWhile(LongPredicate predicate) {
+        return next(delegate.dropWhile(predicate));
+    }
+
+    @Override
+    public void forEach(LongConsumer action) {
+        run.terminal("forEach", () -> {
+            delegate.forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachOrdered(LongConsumer action) {
+        run.terminal("forEachOrdered", () -> {
+            delegate.forEachOrdered(action);
+            return null;
+        });
+    }
+
+    @Override
+    public long[] toArray() {
+        return run.terminal("toArray", delegate::toArray);
+    }
+
+    @Override
+    public long reduce(long identity, LongBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(identity, op));
+    }
+
+    @Override
+    public OptionalLong reduce(LongBinaryOperator op) {
+        return run.terminal("reduce", () -> delegate.reduce(op));
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return run.terminal("collect", () -> delegate.collect(supplier, accumulator, (left, right) -> {
+            run.combine();
+            combiner.accept(left, right);
+        }));
+    }
+
+    @Override
+    public long sum() {
+        return run.terminal("sum", delegate::sum);
+    }
+
+    @Override
+    public OptionalLong min() {
+        return run.terminal("min", delegate::min);
+    }
+
+    @Override
+    public OptionalLong max() {
+        return run.terminal("max", delegate::max);
+    }
+
+    @Override
+    public long count() {
+        return run.terminal("count", delegate::count);
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return run.terminal("average", delegate::average);
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics() {
+        return run.terminal("summaryStatistics", delegate::summaryStatistics);
+    }
+
+    @Override
+    public boolean anyMatch(LongPredicate predicate) {
+        return run.terminal("anyMatch", () -> delegate.anyMatch(predicate));
+    }
+
+    @Override
+    public boolean allMatch(LongPredicate predicate) {
+        return run.terminal("allMatch", () -> delegate.allMatch(predicate));
+    }
+
+    @Override
+    public boolean noneMatch(LongPredicate predicate) {
+        return run.terminal("noneMatch", () -> delegate.noneMatch(predicate));
+    }
+
+    @Override
+    public OptionalLong findFirst() {
+        return run.terminal("findFirst", delegate::findFirst);
+    }
+
+    @Override
+    public OptionalLong findAny() {
+        return run.terminal("findAny", delegate::findAny);
+    }
+
+    @Override
+    public DoubleStream asDoubleStream() {
+        return new InstrumentedDoubleStream(delegate.asDoubleStream(), run, depth);
+    }
+
+    @Override
+    public Stream<Long> boxed() {
+        return new InstrumentedStream<>(delegate.boxed(), run, depth);
+    }
+
+    @Override
+    public LongStream sequential() {
+        delegate.sequential();
+        return this;
+    }
+
+    @Override
+    public LongStream parallel() {
+        delegate.parallel();
+        return this;
+    }
+
+    @Override
+    public LongStream unordered() {
+        return next(delegate.unordered());
+    }
+
+    @Override
+    public LongStream onClose(Runnable closeHandler) {
+        delegate.onClose(closeHandler);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return delegate.isParallel();
+    }
+}
@@ -0,0 +1,140 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 20:31:50 Sunday
+ * <p>
+ * 包在数据源外面，统计元素个数、每个线程的拆分次数，以及每个叶子任务在当前线程上消耗的 CPU 时间和分配的字节数。
+ * <p>
+ * 读取线程 CPU 时间和已分配字节数本身就要几百纳秒，不能每个元素都读：forEachRemaining 前后各读一次；
+ * 逐个 tryAdvance(短路操作、iterator())时每 {@value #SAMPLE_INTERVAL} 个元素结算一次，
+ * 源耗尽或者换了线程时提前结算。短路操作提前结束时，最后一个区间里不到 {@value #SAMPLE_INTERVAL} 个元素的开销不计入。
+ */
+final class InstrumentedSpliterator<T> implements Spliterator<T> {
+
+    private static final int SAMPLE_INTERVAL = 1024;
+
+    private final Spliterator<T> delegate;
+
+    private final Run run;
+
+    /**
+     * 当前采样区间所在的线程，null 表示没有打开的区间；Spliterator 同一时刻只被一个线程遍历
+     */
+    private Thread sampler;
+
+    private long cpuStart;
+
+    private long allocatedStart;
+
+    private int sampled;
+
+    InstrumentedSpliterator(Spliterator<T> delegate, Run run) {
+        this.delegate = delegate;
+        this.run = run;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        openSample();
+        boolean advanced = false;
+        try {
+            //tryAdvance 返回 true 就是恰好交出了一个元素，不需要再包一层 consumer 计数
+            advanced = delegate.tryAdvance(action);
+            return advanced;
+        } finally {
+            if (advanced) {
+                run.sourceElement();
+            }
+            if (!advanced || ++sampled == SAMPLE_INTERVAL) {
+                closeSample();
+            }
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        openSample();
+        Counting<T> counting = new Counting<>(action);
+        try {
+            delegate.forEachRemaining(counting);
+        } finally {
+            run.sourceElements(counting.elements);
+            closeSample();
+        }
+    }
+
+    /**
+     * 换了线程时，上一个线程上没结算的区间直接丢弃，两个线程的计数器相减没有意义
+     */
+    private void openSample() {
+        Thread current = Thread.currentThread();
+        if (sampler != current) {
+            sampler = current;
+            cpuStart = Run.cpuNow();
+            allocatedStart = Run.allocatedNow();
+            sampled = 0;
+        }
+    }
+
+    private void closeSample() {
+        if (sampler != null) {
+            sampler = null;
+            run.threadCost(cpuStart, allocatedStart);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        Spliterator<T> prefix = delegate.trySplit();
+        if (prefix == null) {
+            return null;
+        }
+        run.split();
+        return new InstrumentedSpliterator<>(prefix, run);
+    }
+
+    @Override
+    public long estimateSize() {
+        return delegate.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return delegate.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return delegate.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return delegate.getComparator();
+    }
+
+    /**
+     * 每个叶子任务一个，元素个数先记在字段里，结束时一次性累加
+     */
+    private static final class Counting<T> implements Consumer<T> {
+
+        private final Consumer<? super T> action;
+
+        private long elements;
+
+        Counting(Consumer<? super T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void accept(T item) {
+            elements++;
+            action.accept(item);
+        }
+    }
+}
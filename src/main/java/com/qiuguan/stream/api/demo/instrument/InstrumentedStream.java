@@ -0,0 +1,417 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 20:48:15 Sunday
+ * <p>
+ * 可选的流水线埋点，用来代替 {@code ParallelStreamDemo} 里 {@code System.out.println + Thread.currentThread().getName()}
+ * 那种跟踪方式(打印本身很慢，而且所有线程都在 stdout 上串行)：
+ * <pre>
+ *     InstrumentedStream.wrap(peoples.stream(), "adults")
+ *             .filter(person -&gt; person.getAge() &gt; 30)
+ *             .map(Person::getName)
+ *             .sorted()
+ *             .toList();
+ *     System.out.println(InstrumentedStream.metrics("adults"));
+ * </pre>
+ * 每个阶段记录输入、输出元素个数，带 lambda 的阶段记录 lambda 的耗时；整条流水线的指标见 {@link PipelineMetrics}，
+ * 同时注册为 JMX MBean，每次终止操作结束时提交一个 JFR 事件 {@code com.qiuguan.stream.Pipeline}。
+ * <p>
+ * 默认关闭(系统属性 {@code stream.instrumentation=true} 或者 {@link #setEnabled(boolean)} 打开)，
+ * 关闭时 {@link #wrap} 直接返回原来的流，没有任何额外开销。
+ */
+public final class InstrumentedStream<T> implements Stream<T> {
+
+    private static volatile boolean enabled = Boolean.getBoolean("stream.instrumentation");
+
+    private static final Map<String, PipelineMetrics> PIPELINES = new ConcurrentHashMap<>();
+
+    private final Stream<T> delegate;
+
+    private final Run run;
+
+    private final int depth;
+
+    InstrumentedStream(Stream<T> delegate, Run run, int depth) {
+        this.delegate = delegate;
+        this.run = run;
+        this.depth = depth;
+    }
+
+    public static <T> Stream<T> wrap(Stream<T> stream, String name) {
+        if (!enabled) {
+            return stream;
+        }
+        Objects.requireNonNull(name, "name");
+        Run run = new Run(PIPELINES.computeIfAbsent(name, InstrumentedStream::register));
+        Spliterator<T> source = new InstrumentedSpliterator<>(stream.spliterator(), run);
+        Stream<T> instrumented = StreamSupport.stream(source, stream.isParallel()).onClose(stream::close);
+        return new InstrumentedStream<>(instrumented, run, 0);
+    }
+
+    private static PipelineMetrics register(String name) {
+        PipelineMetrics metrics = new PipelineMetrics(name);
+        try {
+            ObjectName objectName = new ObjectName("com.qiuguan.stream.api.demo:type=Pipeline,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            //同名 MBean 已存在(比如被 reset 之后重新创建)，只是不再通过 JMX 暴露，不影响统计
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register pipeline metrics " + name, e);
+        }
+        return metrics;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        InstrumentedStream.enabled = enabled;
+    }
+
+    /**
+     * 指定名字的流水线的累计指标，没有运行过时返回 null
+     */
+    public static PipelineMetrics metrics(String name) {
+        return PIPELINES.get(name);
+    }
+
+    private <R> Stream<R> next(Stream<R> stream) {
+        return new InstrumentedStream<>(stream, run, depth + 1);
+    }
+
+    private StageMetrics stage(String operation) {
+        return run.pipeline.stage(depth, operation);
+    }
+
+    /**
+     * 没有 lambda 的阶段(sorted、distinct、limit...)，用前后两个 peek 统计进出的元素个数
+     */
+    private Stream<T> counted(String operation, Function<Stream<T>, Stream<T>> op) {
+        StageMetrics stage = stage(operation);
+        return next(op.apply(delegate.peek(item -> stage.in.increment())).peek(item -> stage.out.increment()));
+    }
+
+    private <R> R terminal(String operation, Supplier<R> action) {
+        return run.terminal(operation, action);
+    }
+
+    private void terminal(String operation, Runnable action) {
+        terminal(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <A> BinaryOperator<A> countedCombiner(BinaryOperator<A> combiner) {
+        return (left, right) -> {
+            run.combine();
+            return combiner.apply(left, right);
+        };
+    }
+
+    @Override
+    public Stream<T> filter(Predicate<? super T> predicate) {
+        StageMetrics stage = stage("filter");
+        return next(delegate.filter(item -> {
+            long start = System.nanoTime();
+            boolean matched = predicate.test(item);
+            stage.record(start, matched ? 1 : 0);
+            return matched;
+        }));
+    }
+
+    @Override
+    public <R> Stream<R> map(Function<? super T, ? extends R> mapper) {
+        StageMetrics stage = stage("map");
+        return next(delegate.map(item -> {
+            long start = System.nanoTime();
+            R result = mapper.apply(item);
+            stage.record(start, 1);
+            return result;
+        }));
+    }
+
+    @Override
+    public IntStream mapToInt(ToIntFunction<? super T> mapper) {
+        StageMetrics stage = stage("mapToInt");
+        return new InstrumentedIntStream(delegate.mapToInt(item -> {
+            long start = System.nanoTime();
+            int result = mapper.applyAsInt(item);
+            stage.record(start, 1);
+            return result;
+        }), run, depth + 1);
+    }
+
+    @Override
+    public LongStream mapToLong(ToLongFunction<? super T> mapper) {
+        StageMetrics stage = stage("mapToLong");
+        return new InstrumentedLongStream(delegate.mapToLong(item -> {
+            long start = System.nanoTime();
+            long result = mapper.applyAsLong(item);
+            stage.record(start, 1);
+            return result;
+        }), run, depth + 1);
+    }
+
+    @Override
+    public DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
+        StageMetrics stage = stage("mapToDouble");
+        return new InstrumentedDoubleStream(delegate.mapToDouble(item -> {
+            long start = System.nanoTime();
+            double result = mapper.applyAsDouble(item);
+            stage.record(start, 1);
+            return result;
+        }), run, depth + 1);
+    }
+
+    @Override
+    public <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
+        StageMetrics stage = stage("flatMap");
+        return next(delegate.<R>flatMap(item -> {
+            long start = System.nanoTime();
+            Stream<? extends R> result = mapper.apply(item);
+            stage.record(start, 0);
+            return result;
+        }).peek(item -> stage.out.increment()));
+    }
+
+    @Override
+    public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
+        StageMetrics stage = stage("flatMapToInt");
+        return new InstrumentedIntStream(delegate.peek(item -> stage.in.increment()).flatMapToInt(mapper)
+                .peek(item -> stage.out.increment()), run, depth + 1);
+    }
+
+    @Override
+    public LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
+        StageMetrics stage = stage("flatMapToLong");
+        return new InstrumentedLongStream(delegate.peek(item -> stage.in.increment()).flatMapToLong(mapper)
+                .peek(item -> stage.out.increment()), run, depth + 1);
+    }
+
+    @Override
+    public DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
+        StageMetrics stage = stage("flatMapToDouble");
+        return new InstrumentedDoubleStream(delegate.peek(item -> stage.in.increment()).flatMapToDouble(mapper)
+                .peek(item -> stage.out.increment()), run, depth + 1);
+    }
+
+    @Override
+    public <R> Stream<R> mapMulti(BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        StageMetrics stage = stage("mapMulti");
+        return next(delegate.peek(item -> stage.in.increment()).<R>mapMulti(mapper).peek(item -> stage.out.increment()));
+    }
+
+    @Override
+    public Stream<T> distinct() {
+        return counted("distinct", Stream::distinct);
+    }
+
+    @Override
+    public Stream<T> sorted() {
+        return counted("sorted", Stream::sorted);
+    }
+
+    @Override
+    public Stream<T> sorted(Comparator<? super T> comparator) {
+        return counted("sorted", stream -> stream.sorted(comparator));
+    }
+
+    @Override
+    public Stream<T> peek(Consumer<? super T> action) {
+        StageMetrics stage = stage("peek");
+        return next(delegate.peek(item -> {
+            long start = System.nanoTime();
+            action.accept(item);
+            stage.record(start, 1);
+        }));
+    }
+
+    @Override
+    public Stream<T> limit(long maxSize) {
+        return counted("limit", stream -> stream.limit(maxSize));
+    }
+
+    @Override
+    public Stream<T> skip(long n) {
+        return counted("skip", stream -> stream.skip(n));
+    }
+
+    @Override
+    public Stream<T> takeWhile(Predicate<? super T> predicate) {
+        return counted("takeWhile", stream -> stream.takeWhile(predicate));
+    }
+
+    @Override
+    public Stream<T> dropWhile(Predicate<? super T> predicate) {
+        return counted("dropWhile", stream -> stream.dropWhile(predicate));
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        terminal("forEach", () -> delegate.forEach(action));
+    }
+
+    @Override
+    public void forEachOrdered(Consumer<? super T> action) {
+        terminal("forEachOrdered", () -> delegate.forEachOrdered(action));
+    }
+
+    @Override
+    public Object[] toArray() {
+        return terminal("toArray", () -> delegate.toArray());
+    }
+
+    @Override
+    public <A> A[] toArray(IntFunction<A[]> generator) {
+        return terminal("toArray", () -> delegate.toArray(generator));
+    }
+
+    @Override
+    public T reduce(T identity, BinaryOperator<T> accumulator) {
+        return terminal("reduce", () -> delegate.reduce(identity, accumulator));
+    }
+
+    @Override
+    public Optional<T> reduce(BinaryOperator<T> accumulator) {
+        return terminal("reduce", () -> delegate.reduce(accumulator));
+    }
+
+    @Override
+    public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+        return terminal("reduce", () -> delegate.reduce(identity, accumulator, countedCombiner(combiner)));
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator, BiConsumer<R, R> combiner) {
+        return terminal("collect", () -> delegate.collect(supplier, accumulator, (left, right) -> {
+            run.combine();
+            combiner.accept(left, right);
+        }));
+    }
+
+    @Override
+    public <R, A> R collect(Collector<? super T, A, R> collector) {
+        Collector<? super T, A, R> counted = Collector.of(
+                collector.supplier(),
+                collector.accumulator(),
+                countedCombiner(collector.combiner()),
+                collector.finisher(),
+                collector.characteristics().toArray(new Collector.Characteristics[0]));
+        return terminal("collect", () -> delegate.collect(counted));
+    }
+
+    @Override
+    public Optional<T> min(Comparator<? super T> comparator) {
+        return terminal("min", () -> delegate.min(comparator));
+    }
+
+    @Override
+    public Optional<T> max(Comparator<? super T> comparator) {
+        return terminal("max", () -> delegate.max(comparator));
+    }
+
+    @Override
+    public long count() {
+        return terminal("count", () -> delegate.count());
+    }
+
+    @Override
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        return terminal("anyMatch", () -> delegate.anyMatch(predicate));
+    }
+
+    @Override
+    public boolean allMatch(Predicate<? super T> predicate) {
+        return terminal("allMatch", () -> delegate.allMatch(predicate));
+    }
+
+    @Override
+    public boolean noneMatch(Predicate<? super T> predicate) {
+        return terminal("noneMatch", () -> delegate.noneMatch(predicate));
+    }
+
+    @Override
+    public Optional<T> findFirst() {
+        return terminal("findFirst", () -> delegate.findFirst());
+    }
+
+    @Override
+    public Optional<T> findAny() {
+        return terminal("findAny", () -> delegate.findAny());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return delegate.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return delegate.isParallel();
+    }
+
+    @Override
+    public Stream<T> sequential() {
+        delegate.sequential();
+        return this;
+    }
+
+    @Override
+    public Stream<T> parallel() {
+        delegate.parallel();
+        return this;
+    }
+
+    @Override
+    public Stream<T> unordered() {
+        return new InstrumentedStream<>(delegate.unordered(), run, depth);
+    }
+
+    @Override
+    public Stream<T> onClose(Runnable closeHandler) {
+        delegate.onClose(closeHandler);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 19:52:08 Sunday
+ * <p>
+ * 一次流水线运行(从终止操作开始到结束)对应的 JFR 事件，JFR 没有开启录制时 commit 是空操作。
+ */
+@Name("com.qiuguan.stream.Pipeline")
+@Label("Stream Pipeline")
+@Category({"Stream API Demo"})
+@Description("One terminal operation of an instrumented stream pipeline")
+class PipelineEvent extends jdk.jfr.Event {
+
+    @Label("Pipeline")
+    String pipeline;
+
+    @Label("Terminal Operation")
+    String terminal;
+
+    @Label("Source Elements")
+    long sourceElements;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Combiner Invocations")
+    long combinerInvocations;
+
+    @Label("Splits")
+    long splits;
+}
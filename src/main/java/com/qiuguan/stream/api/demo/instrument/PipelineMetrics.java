@@ -0,0 +1,124 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 20:03:44 Sunday
+ * <p>
+ * 同一个名字的流水线的累计指标，每次 {@link InstrumentedStream#wrap} 同一个名字都会累加到这里。
+ * <ul>
+ *     <li>sourceElements、splitsByThread：在数据源的 Spliterator 上统计</li>
+ *     <li>cpuTime、allocatedBytes：每个叶子任务处理自己那一段数据前后，读取当前线程的 CPU 时间和已分配字节数求差，
+ *     所以包含了这一段数据流经所有阶段的开销</li>
+ *     <li>wallTime：终止操作的耗时，包括转换成 IntStream 等基本类型流之后的 {@code sum()}、{@code average()}</li>
+ * </ul>
+ */
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+
+    private final String name;
+
+    private final Map<Integer, StageMetrics> stages = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> splitsByThread = new ConcurrentHashMap<>();
+
+    final LongAdder runs = new LongAdder();
+
+    final LongAdder sourceElements = new LongAdder();
+
+    final LongAdder wallTimeNanos = new LongAdder();
+
+    final LongAdder cpuTimeNanos = new LongAdder();
+
+    final LongAdder allocatedBytes = new LongAdder();
+
+    final LongAdder combinerInvocations = new LongAdder();
+
+    PipelineMetrics(String name) {
+        this.name = name;
+    }
+
+    StageMetrics stage(int index, String operation) {
+        StageMetrics stage = stages.computeIfAbsent(index, i -> new StageMetrics(i, operation));
+        //同名流水线换了形状，以最新的为准
+        if (!stage.operation.equals(operation)) {
+            stage = new StageMetrics(index, operation);
+            stages.put(index, stage);
+        }
+        return stage;
+    }
+
+    void split() {
+        splitsByThread.computeIfAbsent(Thread.currentThread().getName(), k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    @Override
+    public long getSourceElements() {
+        return sourceElements.sum();
+    }
+
+    @Override
+    public long getWallTimeNanos() {
+        return wallTimeNanos.sum();
+    }
+
+    @Override
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public long getCombinerInvocations() {
+        return combinerInvocations.sum();
+    }
+
+    @Override
+    public String[] getStages() {
+        return stages.values().stream()
+                .sorted(Comparator.comparingInt(stage -> stage.index))
+                .map(StageMetrics::toString)
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public Map<String, Long> getSplitsByThread() {
+        Map<String, Long> result = new TreeMap<>();
+        splitsByThread.forEach((thread, count) -> result.put(thread, count.sum()));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("pipeline[").append(name).append("] runs=").append(getRuns())
+                .append(" source=").append(getSourceElements())
+                .append(" wallNanos=").append(getWallTimeNanos())
+                .append(" cpuNanos=").append(getCpuTimeNanos())
+                .append(" allocatedBytes=").append(getAllocatedBytes())
+                .append(" combiner=").append(getCombinerInvocations())
+                .append(" splits=").append(getSplitsByThread());
+        for (String stage : getStages()) {
+            builder.append(System.lineSeparator()).append("  ").append(stage);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.Map;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 19:46:30 Sunday
+ * <p>
+ * 通过 JMX 暴露的流水线指标，ObjectName 为 {@code com.qiuguan.stream.api.demo:type=Pipeline,name="..."}，
+ * 所有数值都是从第一次运行开始的累计值。
+ */
+public interface PipelineMetricsMXBean {
+
+    String getName();
+
+    long getRuns();
+
+    long getSourceElements();
+
+    long getWallTimeNanos();
+
+    long getCpuTimeNanos();
+
+    long getAllocatedBytes();
+
+    long getCombinerInvocations();
+
+    String[] getStages();
+
+    Map<String, Long> getSplitsByThread();
+}
@@ -0,0 +1,110 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 20:15:27 Sunday
+ * <p>
+ * 一次 wrap 对应的一次运行：同时累加到 {@link PipelineMetrics}(累计值)和自己身上(本次的值，用于 JFR 事件)。
+ */
+final class Run {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+            THREADS instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    private static final boolean ALLOCATED_BYTES = ALLOCATIONS != null
+            && ALLOCATIONS.isThreadAllocatedMemorySupported() && ALLOCATIONS.isThreadAllocatedMemoryEnabled();
+
+    final PipelineMetrics pipeline;
+
+    private final LongAdder sourceElements = new LongAdder();
+
+    private final LongAdder cpuTimeNanos = new LongAdder();
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final LongAdder combinerInvocations = new LongAdder();
+
+    private final LongAdder splits = new LongAdder();
+
+    Run(PipelineMetrics pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    void sourceElement() {
+        sourceElements.increment();
+        pipeline.sourceElements.increment();
+    }
+
+    void sourceElements(long count) {
+        if (count > 0) {
+            sourceElements.add(count);
+            pipeline.sourceElements.add(count);
+        }
+    }
+
+    void split() {
+        splits.increment();
+        pipeline.split();
+    }
+
+    void combine() {
+        combinerInvocations.increment();
+        pipeline.combinerInvocations.increment();
+    }
+
+    static long cpuNow() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    static long allocatedNow() {
+        return ALLOCATED_BYTES ? ALLOCATIONS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    void threadCost(long cpuStart, long allocatedStart) {
+        long cpu = cpuNow() - cpuStart;
+        long allocated = allocatedNow() - allocatedStart;
+        cpuTimeNanos.add(cpu);
+        allocatedBytes.add(allocated);
+        pipeline.cpuTimeNanos.add(cpu);
+        pipeline.allocatedBytes.add(allocated);
+    }
+
+    /**
+     * 执行终止操作，记录耗时、次数，并提交 JFR 事件。Stream 和基本类型流的包装共用这一个入口
+     */
+    <R> R terminal(String operation, Supplier<R> action) {
+        PipelineEvent event = new PipelineEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            finish(operation, start, event);
+        }
+    }
+
+    private void finish(String terminal, long startNanos, PipelineEvent event) {
+        pipeline.runs.increment();
+        pipeline.wallTimeNanos.add(System.nanoTime() - startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.pipeline = pipeline.getName();
+            event.terminal = terminal;
+            event.sourceElements = sourceElements.sum();
+            event.cpuTime = cpuTimeNanos.sum();
+            event.allocated = allocatedBytes.sum();
+            event.combinerInvocations = combinerInvocations.sum();
+            event.splits = splits.sum();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.qiuguan.stream.api.demo.instrument;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 19:40:12 Sunday
+ * <p>
+ * 流水线中一个阶段(filter、map、sorted...)的累计指标。nanos 只统计带 lambda 的阶段，是 lambda 本身的耗时。
+ */
+final class StageMetrics {
+
+    final int index;
+
+    final String operation;
+
+    final LongAdder in = new LongAdder();
+
+    final LongAdder out = new LongAdder();
+
+    final LongAdder nanos = new LongAdder();
+
+    StageMetrics(int index, String operation) {
+        this.index = index;
+        this.operation = operation;
+    }
+
+    void record(long startNanos, long outCount) {
+        nanos.add(System.nanoTime() - startNanos);
+        in.increment();
+        if (outCount > 0) {
+            out.add(outCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return index + ":" + operation + " in=" + in.sum() + " out=" + out.sum() + " lambdaNanos=" + nanos.sum();
+    }
+}
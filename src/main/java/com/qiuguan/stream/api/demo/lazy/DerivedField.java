@@ -0,0 +1,76 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:41:07 Monday
+ * <p>
+ * 对象上的派生属性：每个对象只计算一次，结果按对象身份存在旁路表里(见 {@link IdentitySideTable})，对象本身不用加字段。
+ * 本身就是一个 Function，可以直接用在 map、groupingBy 里，同一批对象反复跑流水线时不会重复计算：
+ * <pre>
+ *     Map&lt;String, List&lt;Person&gt;&gt; byRegion = persons.stream().collect(Collectors.groupingBy(PersonDerivedFields.REGION));
+ * </pre>
+ * 对象被回收后派生值随之清除。派生值只和计算时的字段有关，修改了对象的字段之后要调用 {@link #invalidate}。
+ * 已经计算过的对象读取时不加锁也不分配对象；第一次计算在锁外进行，并发时可能重复计算，但只有一个结果会被发布。
+ */
+public final class DerivedField<O, T> implements Function<O, T> {
+
+    private final Function<? super O, ? extends T> derivation;
+
+    private final IdentitySideTable table = new IdentitySideTable();
+
+    private final LongAdder computations = new LongAdder();
+
+    private DerivedField(Function<? super O, ? extends T> derivation) {
+        this.derivation = derivation;
+    }
+
+    public static <O, T> DerivedField<O, T> of(Function<? super O, ? extends T> derivation) {
+        return new DerivedField<>(Objects.requireNonNull(derivation, "derivation"));
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(O owner) {
+        Objects.requireNonNull(owner, "owner");
+        IdentitySideTable.Entry entry = table.find(owner);
+        if (entry == null) {
+            T value = derivation.apply(owner);
+            computations.increment();
+            entry = table.publish(owner, value, 0);
+        }
+        return (T) entry.value;
+    }
+
+    @Override
+    public T apply(O owner) {
+        return get(owner);
+    }
+
+    /**
+     * 对象的字段变了，下次访问时重新计算
+     */
+    public boolean invalidate(O owner) {
+        return table.remove(Objects.requireNonNull(owner, "owner"));
+    }
+
+    public void invalidateAll() {
+        table.clear();
+    }
+
+    /**
+     * 累计调用 derivation 的次数，重复跑同一批数据时不应该增长
+     */
+    public long computations() {
+        return computations.sum();
+    }
+
+    /**
+     * 当前缓存了派生值、并且还没有被回收的对象个数
+     */
+    public int size() {
+        return table.size();
+    }
+}
@@ -0,0 +1,61 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:48:22 Monday
+ * <p>
+ * int 版本的 {@link DerivedField}，值直接存在旁路表的条目里，不装箱。
+ * 是一个 ToIntFunction，可以直接用在 mapToInt、summingInt 里。
+ */
+public final class DerivedIntField<O> implements ToIntFunction<O> {
+
+    private final ToIntFunction<? super O> derivation;
+
+    private final IdentitySideTable table = new IdentitySideTable();
+
+    private final LongAdder computations = new LongAdder();
+
+    private DerivedIntField(ToIntFunction<? super O> derivation) {
+        this.derivation = derivation;
+    }
+
+    public static <O> DerivedIntField<O> of(ToIntFunction<? super O> derivation) {
+        return new DerivedIntField<>(Objects.requireNonNull(derivation, "derivation"));
+    }
+
+    public int get(O owner) {
+        Objects.requireNonNull(owner, "owner");
+        IdentitySideTable.Entry entry = table.find(owner);
+        if (entry == null) {
+            int value = derivation.applyAsInt(owner);
+            computations.increment();
+            entry = table.publish(owner, null, value);
+        }
+        return entry.intValue;
+    }
+
+    @Override
+    public int applyAsInt(O owner) {
+        return get(owner);
+    }
+
+    public boolean invalidate(O owner) {
+        return table.remove(Objects.requireNonNull(owner, "owner"));
+    }
+
+    public void invalidateAll() {
+        table.clear();
+    }
+
+    public long computations() {
+        return computations.sum();
+    }
+
+    public int size() {
+        return table.size();
+    }
+}
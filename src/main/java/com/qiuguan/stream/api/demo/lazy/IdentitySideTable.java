@@ -0,0 +1,267 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:23:51 Monday
+ * <p>
+ * 按对象身份(==)保存派生值的旁路表，对象本身不需要任何额外字段。key 用弱引用持有，对象被回收后条目随之清除。
+ * <p>
+ * Person 是 {@code @Data}，equals/hashCode 按字段值计算而且字段可变，不能当作 WeakHashMap 的 key，这里只用 identityHashCode。
+ * <ul>
+ *     <li>读取无锁：volatile 的桶数组 + volatile 的 next，不分配任何对象</li>
+ *     <li>写入(每个对象只有第一次)不加锁：CAS 替换桶的头结点，CAS 失败就重新检查整条链再试，同一个对象只会有一个条目</li>
+ *     <li>删除、清理被回收的条目、扩容在锁内进行；删除只改前驱的 next(删头结点也用 CAS，和写入互不覆盖)，
+ *     正在遍历的读线程沿着被删条目的 next 仍然能走完链表</li>
+ *     <li>扩容把旧表的每个桶复制到新表后，用 CAS 换成指向新表的转发结点：读线程跟着转发结点去新表查，
+ *     写线程等扩容结束再写新表；旧条目原样留给还在遍历旧表的读线程</li>
+ * </ul>
+ */
+final class IdentitySideTable {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    Entry find(Object owner) {
+        int hash = hash(owner);
+        AtomicReferenceArray<Entry> tab = table;
+        while (true) {
+            Entry e = tab.get(hash & (tab.length() - 1));
+            if (e instanceof Forward) {
+                tab = ((Forward) e).nextTable;
+                continue;
+            }
+            for (; e != null; e = e.next) {
+                if (e.get() == owner) {
+                    return e;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 已经有别的线程先发布了，返回它的条目，保证每个对象只有一个可见的值
+     */
+    Entry publish(Object owner, Object value, int intValue) {
+        expungeIfCollected();
+        int hash = hash(owner);
+        Entry entry = null;
+        while (true) {
+            AtomicReferenceArray<Entry> tab = table;
+            int index = hash & (tab.length() - 1);
+            Entry head = tab.get(index);
+            if (head instanceof Forward) {
+                //这个桶已经搬到新表，等扩容结束
+                lock.lock();
+                lock.unlock();
+                continue;
+            }
+            for (Entry e = head; e != null; e = e.next) {
+                if (e.get() == owner) {
+                    return e;
+                }
+            }
+            if (entry == null) {
+                entry = new Entry(owner, hash, value, intValue, head, collected);
+            } else {
+                entry.next = head;
+            }
+            if (tab.compareAndSet(index, head, entry)) {
+                if (size.incrementAndGet() > (tab.length() >> 2) * 3 && tab.length() < MAXIMUM_CAPACITY) {
+                    resize(tab);
+                }
+                return entry;
+            }
+        }
+    }
+
+    boolean remove(Object owner) {
+        lock.lock();
+        try {
+            expungeCollected();
+            Entry entry = find(owner);
+            return entry != null && unlink(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        expungeIfCollected();
+        return size.get();
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            AtomicReferenceArray<Entry> old = table;
+            AtomicReferenceArray<Entry> tab = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            //和扩容一样用 CAS 把旧表的桶换成转发结点，只是什么都不复制：清空之前开始的写入会重试到新表上，
+            //CAS 之前已经挂上的条目都算作被清掉，size 只减去真正丢弃的条目，不会和并发写入的自增互相覆盖
+            Forward forward = new Forward(tab);
+            int dropped = 0;
+            for (int i = 0; i < old.length(); i++) {
+                Entry counted = null;
+                while (true) {
+                    Entry head = old.get(i);
+                    for (Entry e = head; e != counted; e = e.next) {
+                        dropped++;
+                    }
+                    if (old.compareAndSet(i, head, forward)) {
+                        break;
+                    }
+                    counted = head;
+                }
+            }
+            table = tab;
+            size.addAndGet(-dropped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 队列为空时 poll 不加锁，只有确实有对象被回收时才拿锁清理
+     */
+    private void expungeIfCollected() {
+        Reference<?> reference = collected.poll();
+        if (reference != null) {
+            lock.lock();
+            try {
+                unlink((Entry) reference);
+                expungeCollected();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            //扩容时被替换掉的旧条目不在当前表里，unlink 找不到，直接忽略
+            unlink((Entry) reference);
+        }
+    }
+
+    /**
+     * 只在锁内调用，当前表里不会有转发结点
+     */
+    private boolean unlink(Entry target) {
+        AtomicReferenceArray<Entry> tab = table;
+        int index = target.hash & (tab.length() - 1);
+        while (true) {
+            Entry previous = null;
+            Entry e = tab.get(index);
+            for (; e != null && e != target; previous = e, e = e.next) {
+                //找到 target 为止
+            }
+            if (e == null) {
+                return false;
+            }
+            if (previous != null) {
+                //写入只会替换头结点，链表中间的 next 只有持锁的线程修改
+                previous.next = e.next;
+            } else if (!tab.compareAndSet(index, e, e.next)) {
+                //头结点刚被写入替换，target 已经不是头结点，重新找前驱
+                continue;
+            }
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    private void resize(AtomicReferenceArray<Entry> expected) {
+        lock.lock();
+        try {
+            if (table != expected) {
+                //别的线程已经扩过了
+                return;
+            }
+            AtomicReferenceArray<Entry> old = table;
+            AtomicReferenceArray<Entry> tab = new AtomicReferenceArray<>(old.length() << 1);
+            Forward forward = new Forward(tab);
+            int dropped = 0;
+            for (int i = 0; i < old.length(); i++) {
+                //先复制再用 CAS 换成转发结点；期间有新写入就只补复制新加在头部的那几个，链表的其余部分只有持锁的线程会改
+                Entry copied = null;
+                while (true) {
+                    Entry head = old.get(i);
+                    for (Entry e = head; e != copied; e = e.next) {
+                        Object owner = e.get();
+                        if (owner == null) {
+                            dropped++;
+                            continue;
+                        }
+                        int index = e.hash & (tab.length() - 1);
+                        tab.set(index, new Entry(owner, e.hash, e.value, e.intValue, tab.get(index), collected));
+                    }
+                    if (old.compareAndSet(i, head, forward)) {
+                        break;
+                    }
+                    copied = head;
+                }
+            }
+            size.addAndGet(-dropped);
+            table = tab;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int hash(Object owner) {
+        int h = System.identityHashCode(owner);
+        return h ^ (h >>> 16);
+    }
+
+    static class Entry extends WeakReference<Object> {
+
+        final int hash;
+
+        final Object value;
+
+        /**
+         * {@link DerivedIntField} 用这个字段，避免装箱
+         */
+        final int intValue;
+
+        volatile Entry next;
+
+        Entry(Object owner, int hash, Object value, int intValue, Entry next, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.hash = hash;
+            this.value = value;
+            this.intValue = intValue;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 扩容、清空时放在旧表桶里的标记，指向接替它的新表
+     */
+    private static final class Forward extends Entry {
+
+        final AtomicReferenceArray<Entry> nextTable;
+
+        Forward(AtomicReferenceArray<Entry> nextTable) {
+            super(null, 0, null, 0, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+}
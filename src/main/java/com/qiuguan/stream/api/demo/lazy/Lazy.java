@@ -0,0 +1,75 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:05:14 Monday
+ * <p>
+ * 第一次 {@link #get()} 时才计算、之后一直复用的值，可以放在字段上(和 {@code Optional} 不同，它就是为字段设计的)：
+ * <pre>
+ *     private final Lazy&lt;String&gt; normalizedName = Lazy.of(() -&gt; Normalizer.normalize(name, Form.NFKC).toLowerCase());
+ * </pre>
+ * 发布是无锁的：计算完用 CAS 写入，第一个写入成功的结果就是唯一可见的结果。多个线程同时第一次访问时，
+ * supplier 可能被执行不止一次，但所有调用方拿到的都是同一个对象，所以 supplier 应当没有副作用。
+ * 计算结果可以是 null，同样只计算一次。计算完成后不再持有 supplier，它捕获的对象可以被回收。
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private static final Object UNSET = new Object();
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Lazy.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile Object value = UNSET;
+
+    private volatile Supplier<? extends T> supplier;
+
+    private Lazy(Supplier<? extends T> supplier) {
+        this.supplier = supplier;
+    }
+
+    public static <T> Lazy<T> of(Supplier<? extends T> supplier) {
+        return new Lazy<>(Objects.requireNonNull(supplier, "supplier"));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object current = value;
+        if (current != UNSET) {
+            return (T) current;
+        }
+        Supplier<? extends T> s = supplier;
+        if (s == null) {
+            //supplier 是在值写入之后才清掉的
+            return (T) value;
+        }
+        Object computed = s.get();
+        if (VALUE.compareAndSet(this, UNSET, computed)) {
+            supplier = null;
+            return (T) computed;
+        }
+        return (T) value;
+    }
+
+    public boolean isComputed() {
+        return value != UNSET;
+    }
+
+    @Override
+    public String toString() {
+        Object current = value;
+        return current == UNSET ? "Lazy[not computed]" : "Lazy[" + current + "]";
+    }
+}
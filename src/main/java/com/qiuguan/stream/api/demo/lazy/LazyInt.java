@@ -0,0 +1,71 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:14:39 Monday
+ * <p>
+ * int 版本的 {@link Lazy}，不装箱。值和"已计算"标记打包在同一个 long 里(高 32 位是标记)，一次 CAS 同时发布两者，
+ * 读取方不会看到标记已设置、值却还没写入的中间状态。
+ */
+public final class LazyInt implements IntSupplier {
+
+    private static final long COMPUTED = 1L << 32;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(LazyInt.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 0 表示还没有计算
+     */
+    private volatile long state;
+
+    private volatile IntSupplier supplier;
+
+    private LazyInt(IntSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    public static LazyInt of(IntSupplier supplier) {
+        return new LazyInt(Objects.requireNonNull(supplier, "supplier"));
+    }
+
+    @Override
+    public int getAsInt() {
+        long current = state;
+        if (current != 0) {
+            return (int) current;
+        }
+        IntSupplier s = supplier;
+        if (s == null) {
+            return (int) state;
+        }
+        long computed = COMPUTED | (s.getAsInt() & 0xFFFFFFFFL);
+        if (STATE.compareAndSet(this, 0L, computed)) {
+            supplier = null;
+            return (int) computed;
+        }
+        return (int) state;
+    }
+
+    public boolean isComputed() {
+        return state != 0;
+    }
+
+    @Override
+    public String toString() {
+        long current = state;
+        return current == 0 ? "LazyInt[not computed]" : "LazyInt[" + (int) current + "]";
+    }
+}
@@ -0,0 +1,57 @@
+package com.qiuguan.stream.api.demo.lazy;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 12:56:30 Monday
+ * <p>
+ * 流水线里经常要用到的 Person 派生属性，计算比较贵的每个 Person 只计算一次：
+ * <pre>
+ *     persons.stream().map(NORMALIZED_NAME).distinct()
+ *     persons.stream().collect(Collectors.groupingBy(REGION, Collectors.counting()))
+ *     persons.stream().mapToInt(AGE_BUCKET).distinct()
+ * </pre>
+ */
+public final class PersonDerivedFields {
+
+    /**
+     * 国家到大洲，{@link #REGION} 使用
+     */
+    private static final Map<String, String> REGIONS = Map.ofEntries(
+            Map.entry("中国", "亚洲"),
+            Map.entry("日本", "亚洲"),
+            Map.entry("韩国", "亚洲"),
+            Map.entry("美国", "北美洲"),
+            Map.entry("加拿大", "北美洲"),
+            Map.entry("英国", "欧洲"),
+            Map.entry("法国", "欧洲"),
+            Map.entry("德国", "欧洲"),
+            Map.entry("澳大利亚", "大洋洲"));
+
+    /**
+     * 去掉首尾空白、NFKC 规范化(全角转半角等)、转小写，姓名为 null 时是 null
+     */
+    public static final DerivedField<Person, String> NORMALIZED_NAME = DerivedField.of(person -> person.getName() == null ? null
+            : Normalizer.normalize(person.getName().strip(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT));
+
+    /**
+     * 年龄段的下界：0、10、20 ...，和 {@link com.qiuguan.stream.api.demo.query.PersonFields#AGE} 一样不接受 null。
+     * 一次除法、一次乘法比查旁路表还便宜，所以不缓存，每次直接计算
+     */
+    public static final ToIntFunction<Person> AGE_BUCKET = person -> person.getAge() / 10 * 10;
+
+    /**
+     * 国家所在的大洲，不认识的国家归为"其他"
+     */
+    public static final DerivedField<Person, String> REGION = DerivedField.of(person ->
+            person.getCountry() == null ? "其他" : REGIONS.getOrDefault(person.getCountry(), "其他"));
+
+    private PersonDerivedFields() {
+    }
+}
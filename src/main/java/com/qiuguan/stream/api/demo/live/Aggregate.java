@@ -0,0 +1,29 @@
+package com.qiuguan.stream.api.demo.live;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 18:20:31 Sunday
+ * <p>
+ * 可增量维护的聚合，形状上对应 {@link java.util.stream.Collector}：empty 对应 supplier，insert 对应 accumulator，
+ * result 对应 finisher，多了一个 delete 用来撤销之前插入的元素。
+ * <p>
+ * 和 Collector 不同，状态 S 必须是不可变的：insert/delete 返回新的状态，不能修改传入的状态。
+ * 这样 {@link LiveAggregation} 才能用 CAS 无锁地替换状态，读快照时也能直接复用没有变化的状态。
+ *
+ * @param <T> 元素类型
+ * @param <S> 不可变的中间状态
+ * @param <R> 结果类型
+ */
+public interface Aggregate<T, S, R> {
+
+    S empty();
+
+    S insert(S state, T item);
+
+    /**
+     * 撤销一次 insert，调用方保证 item 之前确实被插入过
+     */
+    S delete(S state, T item);
+
+    R result(S state);
+}
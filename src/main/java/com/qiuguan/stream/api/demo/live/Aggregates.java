@@ -0,0 +1,163 @@
+package com.qiuguan.stream.api.demo.live;
+
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 18:34:02 Sunday
+ * <p>
+ * 常用的 {@link Aggregate}，和 {@link java.util.stream.Collectors} 中的同名方法一一对应。
+ */
+public final class Aggregates {
+
+    private Aggregates() {
+    }
+
+    /**
+     * 对应 {@code Collectors.counting()}
+     */
+    public static <T> Aggregate<T, Long, Long> counting() {
+        return new Aggregate<>() {
+            @Override
+            public Long empty() {
+                return 0L;
+            }
+
+            @Override
+            public Long insert(Long state, T item) {
+                return state + 1;
+            }
+
+            @Override
+            public Long delete(Long state, T item) {
+                return state - 1;
+            }
+
+            @Override
+            public Long result(Long state) {
+                return state;
+            }
+        };
+    }
+
+    /**
+     * 对应 {@code Collectors.summingInt(mapper)}，用 long 累加
+     */
+    public static <T> Aggregate<T, Long, Long> summingInt(ToIntFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return new Aggregate<>() {
+            @Override
+            public Long empty() {
+                return 0L;
+            }
+
+            @Override
+            public Long insert(Long state, T item) {
+                return state + mapper.applyAsInt(item);
+            }
+
+            @Override
+            public Long delete(Long state, T item) {
+                return state - mapper.applyAsInt(item);
+            }
+
+            @Override
+            public Long result(Long state) {
+                return state;
+            }
+        };
+    }
+
+    /**
+     * 对应 {@code Collectors.summarizingInt(mapper)}。
+     * 删除最小值、最大值之后要能求出新的最值，所以状态里保存的是"值 -&gt; 个数"的有序直方图，
+     * 每次更新复制一份，代价和不同取值的个数成正比，适合年龄这种取值范围小的属性。
+     */
+    public static <T> Aggregate<T, ?, IntSummaryStatistics> summarizingInt(ToIntFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return new Aggregate<T, IntHistogram, IntSummaryStatistics>() {
+            @Override
+            public IntHistogram empty() {
+                return IntHistogram.EMPTY;
+            }
+
+            @Override
+            public IntHistogram insert(IntHistogram state, T item) {
+                return state.add(mapper.applyAsInt(item), 1);
+            }
+
+            @Override
+            public IntHistogram delete(IntHistogram state, T item) {
+                return state.add(mapper.applyAsInt(item), -1);
+            }
+
+            @Override
+            public IntSummaryStatistics result(IntHistogram state) {
+                return state.statistics();
+            }
+        };
+    }
+
+    /**
+     * 不可变的 int 直方图，values 有序且不重复
+     */
+    static final class IntHistogram {
+
+        static final IntHistogram EMPTY = new IntHistogram(new int[0], new long[0], 0, 0);
+
+        private final int[] values;
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private IntHistogram(int[] values, long[] counts, long count, long sum) {
+            this.values = values;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        IntHistogram add(int value, long delta) {
+            int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                long newCount = counts[index] + delta;
+                if (newCount != 0) {
+                    long[] newCounts = counts.clone();
+                    newCounts[index] = newCount;
+                    return new IntHistogram(values, newCounts, count + delta, sum + value * delta);
+                }
+                //这个值的个数归零，从直方图里去掉，保证最值正确
+                int[] newValues = new int[values.length - 1];
+                long[] newCounts = new long[counts.length - 1];
+                System.arraycopy(values, 0, newValues, 0, index);
+                System.arraycopy(values, index + 1, newValues, index, values.length - index - 1);
+                System.arraycopy(counts, 0, newCounts, 0, index);
+                System.arraycopy(counts, index + 1, newCounts, index, counts.length - index - 1);
+                return new IntHistogram(newValues, newCounts, count + delta, sum + value * delta);
+            }
+            int insertAt = -index - 1;
+            int[] newValues = new int[values.length + 1];
+            long[] newCounts = new long[counts.length + 1];
+            System.arraycopy(values, 0, newValues, 0, insertAt);
+            System.arraycopy(values, insertAt, newValues, insertAt + 1, values.length - insertAt);
+            System.arraycopy(counts, 0, newCounts, 0, insertAt);
+            System.arraycopy(counts, insertAt, newCounts, insertAt + 1, counts.length - insertAt);
+            newValues[insertAt] = value;
+            newCounts[insertAt] = delta;
+            return new IntHistogram(newValues, newCounts, count + delta, sum + value * delta);
+        }
+
+        IntSummaryStatistics statistics() {
+            if (values.length == 0) {
+                return new IntSummaryStatistics();
+            }
+            return new IntSummaryStatistics(count, values[0], values[values.length - 1], sum);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.qiuguan.stream.api.demo.live;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 19:05:36 Sunday
+ * <p>
+ * 增量聚合引擎：{@code TerminalOperationDemo} 里的 groupingBy、counting、summarizingInt、partitioningBy
+ * 每次调用都要把整个 List 重新扫一遍，数据越来越多、每隔几秒就查一次时非常浪费。
+ * 这里把同样的聚合定义注册一次，之后每插入/删除一个元素只更新受影响的那个分组：
+ * <pre>
+ *     LiveAggregation&lt;Person&gt; live = new LiveAggregation&lt;&gt;();
+ *     LiveView&lt;Map&lt;String, Long&gt;&gt; byCountry = live.groupingBy(Person::getCountry, Aggregates.counting());
+ *     LiveView&lt;Map&lt;Boolean, Long&gt;&gt; over30 = live.partitioningBy(p -&gt; p.getAge() &gt; 30, Aggregates.counting());
+ *     LiveView&lt;IntSummaryStatistics&gt; ages = live.register(Aggregates.summarizingInt(Person::getAge));
+ *
+ *     live.insert(person);
+ *     live.delete(person);
+ *     byCountry.read();
+ * </pre>
+ * 并发模型：
+ * <ul>
+ *     <li>没有全局锁：每个分组一个 {@link AtomicReference}，写入用 CAS 替换该分组的不可变状态，不同分组之间互不影响</li>
+ *     <li>读快照只是把每个分组当前的状态引用读一遍，不阻塞写入；结果对象按状态引用缓存，状态没变的分组直接复用上次的结果</li>
+ *     <li>快照不是跨分组原子的：读的过程中发生的写入，可能只反映在一部分分组里</li>
+ * </ul>
+ */
+public class LiveAggregation<T> {
+
+    private final List<Definition<T>> definitions = new CopyOnWriteArrayList<>();
+
+    /**
+     * 不分组的聚合，比如整体的 summarizingInt
+     */
+    public <S, R> LiveView<R> register(Aggregate<? super T, S, R> aggregate) {
+        Cell<T, S, R> cell = new Cell<>(aggregate);
+        definitions.add(new Definition<>() {
+            @Override
+            public void insert(T item) {
+                cell.insert(item);
+            }
+
+            @Override
+            public void delete(T item) {
+                cell.delete(item);
+            }
+        });
+        return cell::result;
+    }
+
+    /**
+     * 对应 {@code Collectors.groupingBy(classifier, downstream)}，没有元素的分组不出现在结果中
+     */
+    public <K, S, R> LiveView<Map<K, R>> groupingBy(Function<? super T, ? extends K> classifier,
+                                                   Aggregate<? super T, S, R> aggregate) {
+        Grouping<T, K, S, R> grouping = new Grouping<>(classifier, aggregate);
+        definitions.add(grouping);
+        return grouping::snapshot;
+    }
+
+    /**
+     * 对应 {@code Collectors.partitioningBy(predicate, downstream)}，和它一样 true、false 两个 key 始终存在
+     */
+    public <S, R> LiveView<Map<Boolean, R>> partitioningBy(Predicate<? super T> predicate,
+                                                          Aggregate<? super T, S, R> aggregate) {
+        Objects.requireNonNull(predicate, "predicate");
+        Grouping<T, Boolean, S, R> grouping = new Grouping<>(predicate::test, aggregate);
+        grouping.cell(false);
+        grouping.cell(true);
+        definitions.add(grouping);
+        return () -> {
+            Map<Boolean, R> result = new LinkedHashMap<>();
+            result.put(false, grouping.cell(false).result());
+            result.put(true, grouping.cell(true).result());
+            return result;
+        };
+    }
+
+    public void insert(T item) {
+        for (Definition<T> definition : definitions) {
+            definition.insert(item);
+        }
+    }
+
+    /**
+     * 撤销一个之前插入过的元素，调用方保证它确实被插入过
+     */
+    public void delete(T item) {
+        for (Definition<T> definition : definitions) {
+            definition.delete(item);
+        }
+    }
+
+    public void insertAll(Iterable<? extends T> items) {
+        for (T item : items) {
+            insert(item);
+        }
+    }
+
+    private interface Definition<T> {
+
+        void insert(T item);
+
+        void delete(T item);
+    }
+
+    private static final class Grouping<T, K, S, R> implements Definition<T> {
+
+        private final Function<? super T, ? extends K> classifier;
+
+        private final Aggregate<? super T, S, R> aggregate;
+
+        private final Map<K, Cell<T, S, R>> cells = new ConcurrentHashMap<>();
+
+        Grouping(Function<? super T, ? extends K> classifier, Aggregate<? super T, S, R> aggregate) {
+            this.classifier = Objects.requireNonNull(classifier, "classifier");
+            this.aggregate = Objects.requireNonNull(aggregate, "aggregate");
+        }
+
+        Cell<T, S, R> cell(K key) {
+            Cell<T, S, R> cell = cells.get(key);
+            return cell != null ? cell : cells.computeIfAbsent(key, k -> new Cell<>(aggregate));
+        }
+
+        private K key(T item) {
+            return Objects.requireNonNull(classifier.apply(item), "element cannot be mapped to a null key");
+        }
+
+        @Override
+        public void insert(T item) {
+            cell(key(item)).insert(item);
+        }
+
+        @Override
+        public void delete(T item) {
+            cell(key(item)).delete(item);
+        }
+
+        Map<K, R> snapshot() {
+            Map<K, R> result = new LinkedHashMap<>();
+            cells.forEach((key, cell) -> {
+                Cell.Version<S> version = cell.version();
+                if (version.rows > 0) {
+                    result.put(key, cell.result(version));
+                }
+            });
+            return result;
+        }
+    }
+
+    /**
+     * 一个分组的状态：不可变的 (行数, 聚合状态)，CAS 整体替换
+     */
+    private static final class Cell<T, S, R> {
+
+        private final Aggregate<? super T, S, R> aggregate;
+
+        private final AtomicReference<Version<S>> current;
+
+        /**
+         * 上一次读出的 (状态, 结果)，状态引用没变就直接复用结果
+         */
+        private volatile Cached<S, R> cached;
+
+        Cell(Aggregate<? super T, S, R> aggregate) {
+            this.aggregate = aggregate;
+            this.current = new AtomicReference<>(new Version<>(0, aggregate.empty()));
+        }
+
+        void insert(T item) {
+            Version<S> prev;
+            Version<S> next;
+            do {
+                prev = current.get();
+                next = new Version<>(prev.rows + 1, aggregate.insert(prev.state, item));
+            } while (!current.compareAndSet(prev, next));
+        }
+
+        void delete(T item) {
+            Version<S> prev;
+            Version<S> next;
+            do {
+                prev = current.get();
+                next = new Version<>(prev.rows - 1, aggregate.delete(prev.state, item));
+            } while (!current.compareAndSet(prev, next));
+        }
+
+        Version<S> version() {
+            return current.get();
+        }
+
+        R result() {
+            return result(current.get());
+        }
+
+        R result(Version<S> version) {
+            Cached<S, R> last = cached;
+            if (last != null && last.version == version) {
+                return last.result;
+            }
+            R result = aggregate.result(version.state);
+            cached = new Cached<>(version, result);
+            return result;
+        }
+
+        private static final class Version<S> {
+
+            final long rows;
+
+            final S state;
+
+            Version(long rows, S state) {
+                this.rows = rows;
+                this.state = state;
+            }
+        }
+
+        private static final class Cached<S, R> {
+
+            final Version<S> version;
+
+            final R result;
+
+            Cached(Version<S> version, R result) {
+                this.version = version;
+                this.result = result;
+            }
+        }
+    }
+}
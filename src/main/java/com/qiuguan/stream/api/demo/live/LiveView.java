@@ -0,0 +1,14 @@
+package com.qiuguan.stream.api.demo.live;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 18:52:47 Sunday
+ * <p>
+ * 注册到 {@link LiveAggregation} 上的一个聚合结果，{@link #read()} 返回当前时刻的快照，不阻塞写入，代价是 O(分组数)。
+ * 没有变化的分组会复用上一次的结果对象，所以不要修改读出来的结果(比如 IntSummaryStatistics)。
+ */
+@FunctionalInterface
+public interface LiveView<R> {
+
+    R read();
+}
@@ -1,5 +1,7 @@
 package com.qiuguan.stream.api.demo.optional;
 
+import com.qiuguan.stream.api.demo.lazy.Lazy;
+
 import java.util.Optional;
 
 /**
@@ -24,5 +26,10 @@ public class OptionalDemo {
         System.out.println("optional.isEmpty() = " + optional.isEmpty());
         System.out.println("optional.isPresent() = " + optional.isPresent());
         optional.ifPresent(System.out::println);
+
+        //字段上要的往往不是"可能没有值"，而是"用到时才计算、只算一次"，这时用 Lazy 而不是 Optional
+        Lazy<String> expensive = Lazy.of(() -> "abc".repeat(3));
+        System.out.println("expensive.isComputed() = " + expensive.isComputed());
+        System.out.println("expensive.get() = " + expensive.get());
     }
 }
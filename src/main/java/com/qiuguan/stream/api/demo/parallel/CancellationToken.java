@@ -0,0 +1,52 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 06:14:25 Monday
+ * <p>
+ * {@link ShortCircuit} 各个拆分任务共享的取消标记：可以手动 {@link #cancel()}，也可以带一个截止时间，到点自动视为已取消。
+ * 任务只在批次边界检查，截止时间的判断需要 System.nanoTime()，不放在每个元素上。
+ */
+public final class CancellationToken {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadline;
+
+    private volatile boolean cancelled;
+
+    private CancellationToken(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public static CancellationToken create() {
+        return new CancellationToken(NO_DEADLINE);
+    }
+
+    public static CancellationToken withTimeout(Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout");
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+        }
+        long nanos = timeout.compareTo(Duration.ofDays(365)) > 0 ? Long.MAX_VALUE / 2 : timeout.toNanos();
+        return new CancellationToken(System.nanoTime() + nanos);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        if (cancelled) {
+            return true;
+        }
+        if (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 14:02:33 Sunday
+ * <p>
+ * 无锁的延迟直方图，按 2 的幂分桶(纳秒)，分位数是所在桶的上界，误差在 2 倍以内，够看 p99 的趋势。
+ */
+final class LatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    void record(long nanos) {
+        long value = Math.max(1, nanos);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long meanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    long percentileNanos(double percentile) {
+        long[] snapshot = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
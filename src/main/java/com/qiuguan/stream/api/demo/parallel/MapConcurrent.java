@@ -0,0 +1,167 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 15:20:17 Sunday
+ * <p>
+ * 面向阻塞 IO 的并发 map 阶段：每个元素的 fn 在独立的虚拟线程上执行(见 {@link VirtualThreads})，
+ * 同时执行中的元素不超过 maxInFlight 个。
+ * <p>
+ * 和 {@code .parallel().map(fn)} 的区别：
+ * <ul>
+ *     <li>不占用 ForkJoinPool 的载体线程，适合 fn 里有数据库、文件查询这种阻塞调用的场景</li>
+ *     <li>上游是按需拉取的：只有当某个结果被下游取走，才会再从上游拉一个元素，
+ *     所以即使上游是 {@code Stream.generate} 这样的无限流，内存中也最多只有 maxInFlight 个元素</li>
+ * </ul>
+ * 有序模式按遇到顺序输出(慢元素会挡住后面已经完成的元素)，无序模式按完成顺序输出。
+ * <p>
+ * 返回的流应当关闭(或者消费完)，关闭时会中断仍在执行的任务：
+ * <pre>
+ *     try (Stream&lt;String&gt; regions = MapConcurrent.mapConcurrent(persons.stream(), this::lookupRegion, 64)) {
+ *         regions.forEach(System.out::println);
+ *     }
+ * </pre>
+ */
+public final class MapConcurrent {
+
+    private MapConcurrent() {
+    }
+
+    /**
+     * 有序模式
+     */
+    public static <T, R> Stream<R> mapConcurrent(Stream<T> source, Function<? super T, ? extends R> fn, int maxInFlight) {
+        return create(source, fn, maxInFlight, true);
+    }
+
+    /**
+     * 无序模式，谁先完成谁先输出
+     */
+    public static <T, R> Stream<R> mapConcurrentUnordered(Stream<T> source, Function<? super T, ? extends R> fn, int maxInFlight) {
+        return create(source, fn, maxInFlight, false);
+    }
+
+    private static <T, R> Stream<R> create(Stream<T> source, Function<? super T, ? extends R> fn, int maxInFlight, boolean ordered) {
+        Objects.requireNonNull(fn, "fn");
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        MapConcurrentSpliterator<T, R> spliterator = new MapConcurrentSpliterator<>(source.spliterator(), fn, maxInFlight, ordered);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::close)
+                .onClose(source::close);
+    }
+
+    private static final class MapConcurrentSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+
+        private final Spliterator<T> source;
+
+        private final Function<? super T, ? extends R> fn;
+
+        private final int maxInFlight;
+
+        private final boolean ordered;
+
+        private final ExecutorService executor;
+
+        /**
+         * 有序模式：按提交顺序排队的 Future
+         */
+        private final ArrayDeque<Future<R>> inFlight;
+
+        /**
+         * 无序模式：按完成顺序取结果
+         */
+        private final CompletionService<R> completion;
+
+        private int running;
+
+        private boolean exhausted;
+
+        private boolean closed;
+
+        MapConcurrentSpliterator(Spliterator<T> source, Function<? super T, ? extends R> fn, int maxInFlight, boolean ordered) {
+            super(Long.MAX_VALUE, ordered ? ORDERED : 0);
+            this.source = source;
+            this.fn = fn;
+            this.maxInFlight = maxInFlight;
+            this.ordered = ordered;
+            this.executor = VirtualThreads.newExecutor(maxInFlight);
+            this.inFlight = ordered ? new ArrayDeque<>(maxInFlight) : null;
+            this.completion = ordered ? null : new ExecutorCompletionService<>(executor);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (closed) {
+                return false;
+            }
+            //背压：在途数量达到上限就不再从上游拉取
+            while (!exhausted && running < maxInFlight) {
+                if (!source.tryAdvance(this::submit)) {
+                    exhausted = true;
+                }
+            }
+            if (running == 0) {
+                close();
+                return false;
+            }
+            R result = await();
+            action.accept(result);
+            return true;
+        }
+
+        private void submit(T item) {
+            Future<R> future = ordered
+                    ? executor.submit(() -> fn.apply(item))
+                    : completion.submit(() -> fn.apply(item));
+            if (ordered) {
+                inFlight.add(future);
+            }
+            running++;
+        }
+
+        private R await() {
+            try {
+                Future<R> future = ordered ? inFlight.poll() : completion.take();
+                running--;
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("interrupted while waiting for mapConcurrent", e);
+            } catch (ExecutionException e) {
+                close();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                executor.shutdownNow();
+            }
+        }
+    }
+}
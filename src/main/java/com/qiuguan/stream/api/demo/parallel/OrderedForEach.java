@@ -0,0 +1,460 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 11:02:36 Monday
+ * <p>
+ * 并行处理、按遇到顺序交付的 forEach。{@code parallel().forEachOrdered(...)} 要求最左边的拆分先完成，
+ * 后面的任务都在等它，并行的收益基本没了；{@code forEach} 快但顺序是乱的。
+ * <p>
+ * 这里把源按遇到顺序切成小块，工作线程依次领取，各自执行上游的 map、filter：
+ * <ul>
+ *     <li>领到队头块的线程直接把元素交给 consumer，不经过缓冲</li>
+ *     <li>其他线程把结果放进自己块里的缓冲，不加锁；窗口容量(最多 windowSize 个元素)从一个原子计数器里按批预留，
+ *     窗口满了就阻塞(背压)，直到队头往前推进</li>
+ *     <li>队头块处理完，由它的线程把后面已经完成的块依次交付，再把队头交给下一个还在处理中的块</li>
+ * </ul>
+ * 锁只在领取块、块处理完和队头交接时使用，逐个元素的路径上没有锁。阻塞经过 {@link ForkJoinPool#managedBlock}，
+ * 池子可以临时补充线程；等待可以被中断，中断后整个调用以 IllegalStateException 结束，并保留中断标记。
+ * 块只会被正在运行的线程领取，队头块的线程从不等待窗口，所以不会死锁。
+ * consumer 不会被并发调用，但可能在不同的线程上执行，前一次调用对下一次可见。
+ * <pre>
+ *     OrderedForEach.Metrics metrics = OrderedForEach.orderedParallelForEach(
+ *             persons.parallelStream().map(this::render), writer::println, 1024);
+ * </pre>
+ * 在某个 ForkJoinPool 的工作线程里调用时(比如 {@link ParallelExec})，工作线程取自这个池子，否则用 commonPool。
+ * 和 JDK 的终止操作一样，不会关闭传入的流。
+ */
+public final class OrderedForEach {
+
+    private OrderedForEach() {
+    }
+
+    /**
+     * @param windowSize 重排窗口最多缓冲的元素个数，队头块正在交付的元素不计入
+     * @return 窗口的统计，窗口停顿多说明队头块太慢或者窗口太小
+     */
+    public static <T> Metrics orderedParallelForEach(Stream<T> stream, Consumer<? super T> consumer, int windowSize) {
+        Objects.requireNonNull(stream, "stream");
+        Objects.requireNonNull(consumer, "consumer");
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        Thread current = Thread.currentThread();
+        ForkJoinPool pool = current instanceof ForkJoinWorkerThread
+                ? ((ForkJoinWorkerThread) current).getPool() : ForkJoinPool.commonPool();
+        return new Window<>(stream.spliterator(), consumer, windowSize, pool.getParallelism()).run(pool);
+    }
+
+    @Value
+    public static class Metrics {
+
+        int windowSize;
+
+        /**
+         * 参与处理的线程数，包括调用线程
+         */
+        int workers;
+
+        long chunks;
+
+        long delivered;
+
+        /**
+         * 线程因为窗口已满而阻塞的次数
+         */
+        long stallCount;
+
+        long stallNanos;
+
+        /**
+         * 窗口同时被占用(已缓冲或者已预留)的最多元素个数
+         */
+        int maxBuffered;
+    }
+
+    private static final class Window<T> {
+
+        /**
+         * 有线程失败后，用来中断其他线程里正在进行的 forEachRemaining，不需要堆栈
+         */
+        private static final RuntimeException ABORT = new RuntimeException("aborted", null, false, false) {
+        };
+
+        private static final long UNKNOWN_SIZE_CHUNK = 1024;
+
+        private final Consumer<? super T> consumer;
+
+        private final int windowSize;
+
+        private final int workers;
+
+        private final long chunkSize;
+
+        /**
+         * 每次从窗口预留的容量，不超过每个线程分到的份额
+         */
+        private final int reserveBatch;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition changed = lock.newCondition();
+
+        /**
+         * 还没被领取的源，按遇到顺序排列
+         */
+        private final ArrayDeque<Spliterator<T>> pending = new ArrayDeque<>();
+
+        /**
+         * 已领取、还没交付完的块，按序号排列，第一个就是队头
+         */
+        private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+
+        /**
+         * 窗口的剩余容量，预留时减少，缓冲的元素交付之后归还
+         */
+        private final AtomicInteger permits;
+
+        private long nextSeq;
+
+        /**
+         * 在 lock 里修改；处理中的块每个元素都要读一次，判断自己是不是成了队头
+         */
+        private volatile long head;
+
+        /**
+         * 在 lock 里修改；归还容量的线程只在有人等待时才去拿锁唤醒
+         */
+        private volatile int waiters;
+
+        private volatile boolean failed;
+
+        private Throwable failure;
+
+        /**
+         * 只由当前队头的线程修改，队头的交接经过 head(volatile)，所以不需要原子操作
+         */
+        private long delivered;
+
+        private final LongAdder stallCount = new LongAdder();
+
+        private final LongAdder stallNanos = new LongAdder();
+
+        private final AtomicInteger maxBuffered = new AtomicInteger();
+
+        Window(Spliterator<T> source, Consumer<? super T> consumer, int windowSize, int parallelism) {
+            this.consumer = consumer;
+            this.windowSize = windowSize;
+            this.workers = parallelism + 1;
+            //块不宜比每个线程分到的窗口大，否则非队头的块很快就会把窗口占满
+            long estimate = source.estimateSize();
+            long bySize = estimate == Long.MAX_VALUE ? UNKNOWN_SIZE_CHUNK : estimate / (workers * 4L);
+            this.chunkSize = Math.max(1, Math.min(bySize, windowSize / workers));
+            this.reserveBatch = (int) Math.min(chunkSize, Math.max(1, windowSize / workers));
+            this.permits = new AtomicInteger(windowSize);
+            pending.add(source);
+        }
+
+        Metrics run(ForkJoinPool pool) {
+            List<ForkJoinTask<?>> helpers = new ArrayList<>(workers - 1);
+            for (int i = 1; i < workers; i++) {
+                helpers.add(pool.submit(this::work));
+            }
+            work();
+            for (ForkJoinTask<?> helper : helpers) {
+                helper.join();
+            }
+            if (failure != null) {
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw new IllegalStateException(failure);
+            }
+            return new Metrics(windowSize, workers, nextSeq, delivered, stallCount.sum(), stallNanos.sum(), maxBuffered.get());
+        }
+
+        private void work() {
+            try {
+                Chunk chunk;
+                while ((chunk = claim()) != null) {
+                    chunk.process();
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * 从源的最前面切下一块：不断 trySplit 前缀，后缀按顺序放回 pending
+         */
+        private Chunk claim() {
+            lock.lock();
+            try {
+                Spliterator<T> spliterator = failed ? null : pending.pollFirst();
+                if (spliterator == null) {
+                    return null;
+                }
+                while (spliterator.estimateSize() > chunkSize) {
+                    Spliterator<T> prefix = spliterator.trySplit();
+                    if (prefix == null) {
+                        break;
+                    }
+                    pending.addFirst(spliterator);
+                    spliterator = prefix;
+                }
+                Chunk chunk = new Chunk(spliterator, nextSeq++);
+                chunk.owner = chunk.seq == head;
+                chunks.addLast(chunk);
+                return chunk;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(Throwable e) {
+            if (e == ABORT) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = e;
+                }
+                failed = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void deliver(List<T> backlog) {
+            if (backlog == null) {
+                return;
+            }
+            for (T item : backlog) {
+                consumer.accept(item);
+            }
+            delivered += backlog.size();
+            release(backlog.size());
+        }
+
+        /**
+         * 归还窗口容量。先写 permits 再读 waiters，等待方先改 waiters 再读 permits，两边至少有一方能看到对方
+         */
+        private void release(int count) {
+            if (count == 0) {
+                return;
+            }
+            permits.addAndGet(count);
+            if (waiters > 0) {
+                lock.lock();
+                try {
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * 队头块已经全部交付：推进队头，顺带交付后面已经完成的块，直到遇到还在处理中或者还没被领取的块
+         */
+        private void advance() {
+            lock.lock();
+            try {
+                while (true) {
+                    chunks.pollFirst();
+                    head++;
+                    changed.signalAll();
+                    Chunk next = chunks.peekFirst();
+                    if (next == null || !next.done) {
+                        //还在处理中的块，它的线程醒来或者处理下一个元素时会接手交付
+                        return;
+                    }
+                    List<T> backlog = next.buffer;
+                    next.buffer = null;
+                    lock.unlock();
+                    try {
+                        deliver(backlog);
+                    } finally {
+                        lock.lock();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private final class Chunk implements Consumer<T>, ForkJoinPool.ManagedBlocker {
+
+            private final Spliterator<T> spliterator;
+
+            private final long seq;
+
+            /**
+             * 是否已经是队头，只由处理这个块的线程读写
+             */
+            private boolean owner;
+
+            /**
+             * 在 lock 里修改，advance 据此判断能不能替这个块交付缓冲
+             */
+            private boolean done;
+
+            /**
+             * 处理中只由这个块的线程读写，不加锁；处理完之后经过 lock 交给 advance
+             */
+            private List<T> buffer;
+
+            /**
+             * 已经预留、还没用掉的窗口容量
+             */
+            private int reserved;
+
+            Chunk(Spliterator<T> spliterator, long seq) {
+                this.spliterator = spliterator;
+                this.seq = seq;
+            }
+
+            void process() {
+                spliterator.forEachRemaining(this);
+                release(reserved);
+                reserved = 0;
+                List<T> backlog;
+                lock.lock();
+                try {
+                    done = true;
+                    if (head != seq) {
+                        //缓冲留给前面的队头交付
+                        return;
+                    }
+                    owner = true;
+                    backlog = buffer;
+                    buffer = null;
+                } finally {
+                    lock.unlock();
+                }
+                deliver(backlog);
+                advance();
+            }
+
+            @Override
+            public void accept(T item) {
+                if (failed) {
+                    throw ABORT;
+                }
+                if (!owner) {
+                    if (head != seq && (reserved > 0 || reserve())) {
+                        if (buffer == null) {
+                            buffer = new ArrayList<>();
+                        }
+                        buffer.add(item);
+                        reserved--;
+                        return;
+                    }
+                    takeOver();
+                }
+                consumer.accept(item);
+                delivered++;
+            }
+
+            /**
+             * 看到 head == seq 时前面的块都已经交付完，其他线程不会再碰这个块的缓冲，不需要加锁
+             */
+            private void takeOver() {
+                owner = true;
+                List<T> backlog = buffer;
+                buffer = null;
+                int unused = reserved;
+                reserved = 0;
+                deliver(backlog);
+                release(unused);
+            }
+
+            /**
+             * 预留一批窗口容量，窗口满了就阻塞；等待期间成了队头返回 false
+             */
+            private boolean reserve() {
+                long stalledAt = 0;
+                try {
+                    while (true) {
+                        int available = permits.get();
+                        if (available > 0) {
+                            int take = Math.min(available, reserveBatch);
+                            if (permits.compareAndSet(available, available - take)) {
+                                reserved = take;
+                                maxBuffered.accumulateAndGet(windowSize - available + take, Math::max);
+                                return true;
+                            }
+                            continue;
+                        }
+                        if (stalledAt == 0) {
+                            stalledAt = System.nanoTime();
+                            stallCount.increment();
+                        }
+                        try {
+                            ForkJoinPool.managedBlock(this);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            fail(e);
+                            throw ABORT;
+                        }
+                        if (failed) {
+                            throw ABORT;
+                        }
+                        if (head == seq) {
+                            return false;
+                        }
+                    }
+                } finally {
+                    if (stalledAt != 0) {
+                        stallNanos.add(System.nanoTime() - stalledAt);
+                    }
+                }
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return failed || head == seq || permits.get() > 0;
+            }
+
+            @Override
+            public boolean block() throws InterruptedException {
+                lock.lockInterruptibly();
+                try {
+                    waiters++;
+                    try {
+                        while (!isReleasable()) {
+                            changed.await();
+                        }
+                    } finally {
+                        waiters--;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                return true;
+            }
+        }
+    }
+}
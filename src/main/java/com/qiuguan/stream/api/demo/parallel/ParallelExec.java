@@ -0,0 +1,176 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 14:21:10 Sunday
+ * <p>
+ * 让整条并行流水线跑在指定的 ForkJoinPool 上，而不是 JVM 全局共享的 commonPool。
+ * <p>
+ * 原理：并行流的终止操作如果是在某个 ForkJoinPool 的工作线程里调用的，拆分出来的子任务就会提交到这个池子，
+ * 所以只要把"创建流 + 终止操作"整体作为一个任务提交进去即可。也正因为如此，这里不直接返回 Stream——
+ * 终止操作在哪个线程上调用，流水线就跑在哪个池子里，必须把终止操作一起交进来：
+ * <pre>
+ *     try (ParallelExec exec = ParallelExec.create("report", 4, 8)) {
+ *         Map&lt;String, List&lt;Person&gt;&gt; byCountry = exec.collect(persons, Collectors.groupingBy(Person::getCountry));
+ *         long adults = exec.stream(persons, s -&gt; s.filter(p -&gt; p.getAge() &gt; 18).count());
+ *     }
+ * </pre>
+ * 排队上限：同时在池子里(排队 + 执行)的流水线不超过 maxPending 个，超出时直接抛 {@link RejectedExecutionException}，
+ * 不会无限制地堆积。
+ * <p>
+ * 注意：并行流拆分粒度仍然参考的是 commonPool 的并行度，这里只改变"由谁来执行"，不改变"拆成多少块"。
+ */
+public final class ParallelExec implements AutoCloseable {
+
+    private final String name;
+
+    private final ForkJoinPool pool;
+
+    private final boolean ownsPool;
+
+    private final Semaphore pending;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private ParallelExec(String name, ForkJoinPool pool, boolean ownsPool, int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        this.name = name;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    /**
+     * 包装一个已有的池子，close() 时不会关闭它
+     */
+    public static ParallelExec on(ForkJoinPool pool) {
+        return on(pool, Integer.MAX_VALUE);
+    }
+
+    public static ParallelExec on(ForkJoinPool pool, int maxPending) {
+        return new ParallelExec("pool-" + System.identityHashCode(pool), Objects.requireNonNull(pool, "pool"), false, maxPending);
+    }
+
+    /**
+     * 创建一个专用的、线程数严格不超过 parallelism 的池子，close() 时关闭
+     */
+    public static ParallelExec create(String name, int parallelism, int maxPending) {
+        Objects.requireNonNull(name, "name");
+        AtomicInteger index = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        //maximumPoolSize = parallelism，阻塞时也不额外补偿线程；saturate 返回 true 表示达到上限时继续执行而不是抛异常
+        ForkJoinPool pool = new ForkJoinPool(parallelism, factory, null, false,
+                0, parallelism, 1, p -> true, 60, TimeUnit.SECONDS);
+        return new ParallelExec(name, pool, true, maxPending);
+    }
+
+    /**
+     * 在池子里执行 pipeline，pipeline 内部创建的并行流都会跑在这个池子上
+     */
+    public <R> R submit(Supplier<R> pipeline) {
+        Objects.requireNonNull(pipeline, "pipeline");
+        if (!pending.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("too many pending pipelines in " + name);
+        }
+        long submitted = System.nanoTime();
+        try {
+            ForkJoinTask<R> task = pool.submit(() -> {
+                long started = System.nanoTime();
+                queueWait.record(started - submitted);
+                try {
+                    return pipeline.get();
+                } finally {
+                    execution.record(System.nanoTime() - started);
+                }
+            });
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+            throw new IllegalStateException("interrupted while waiting for " + name, e);
+        } catch (ExecutionException e) {
+            failed.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            pending.release();
+        }
+    }
+
+    /**
+     * 对 source 创建并行流，交给 pipeline 完成中间操作和终止操作
+     */
+    public <T, R> R stream(Collection<T> source, Function<Stream<T>, R> pipeline) {
+        return submit(() -> pipeline.apply(source.parallelStream()));
+    }
+
+    public <T, R> R collect(Collection<T> source, Collector<? super T, ?, R> collector) {
+        return submit(() -> source.parallelStream().collect(collector));
+    }
+
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    public PoolMetrics metrics() {
+        return new PoolMetrics(
+                name,
+                pool.getParallelism(),
+                pool.getPoolSize(),
+                pool.getActiveThreadCount(),
+                pool.getRunningThreadCount(),
+                pool.getStealCount(),
+                pool.getQueuedTaskCount(),
+                pool.getQueuedSubmissionCount(),
+                execution.count(),
+                failed.sum(),
+                rejected.sum(),
+                queueWait.meanNanos(),
+                queueWait.percentileNanos(0.99),
+                execution.meanNanos(),
+                execution.percentileNanos(0.99));
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import lombok.Value;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 14:10:48 Sunday
+ * <p>
+ * {@link ParallelExec} 某一时刻的指标快照，延迟单位都是纳秒。
+ * queueWait 是从提交到开始执行的等待时间，execution 是流水线本身的执行时间。
+ */
+@Value
+public class PoolMetrics {
+
+    String name;
+
+    int parallelism;
+
+    int poolSize;
+
+    int activeThreads;
+
+    int runningThreads;
+
+    long stealCount;
+
+    long queuedTasks;
+
+    int queuedSubmissions;
+
+    long completedPipelines;
+
+    long failedPipelines;
+
+    long rejectedPipelines;
+
+    long meanQueueWaitNanos;
+
+    long p99QueueWaitNanos;
+
+    long meanExecutionNanos;
+
+    long p99ExecutionNanos;
+}
@@ -0,0 +1,70 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 17:02:45 Sunday
+ * <p>
+ * 已知满足结合律的基本类型归约，可以放心地用在并行流上，全程没有装箱。
+ * 对比 {@code List.of(1, 2, 3, 4).parallelStream().reduce(0, Integer::sum)}，每一步都是 Integer。
+ */
+public final class PrimitiveReducers {
+
+    private PrimitiveReducers() {
+    }
+
+    /**
+     * 用 long 累加，不会像 {@link IntStream#sum()} 那样溢出
+     */
+    public static long sum(IntStream stream) {
+        return stream.asLongStream().sum();
+    }
+
+    public static <T> long sumInt(Stream<T> stream, ToIntFunction<? super T> mapper) {
+        return sum(stream.mapToInt(mapper));
+    }
+
+    public static int min(IntStream stream, int ifEmpty) {
+        return stream.reduce(Math::min).orElse(ifEmpty);
+    }
+
+    public static int max(IntStream stream, int ifEmpty) {
+        return stream.reduce(Math::max).orElse(ifEmpty);
+    }
+
+    public static long count(IntStream stream) {
+        return stream.count();
+    }
+
+    /**
+     * Kahan-Babuska(Neumaier) 补偿求和：每个叶子任务维护 {和, 误差补偿}，合并时把两边的补偿都带上，
+     * 大量量级差异很大的 double 相加时误差不随元素个数增长
+     */
+    public static double kahanSum(DoubleStream stream) {
+        double[] state = stream.collect(() -> new double[2], PrimitiveReducers::kahanAdd, (left, right) -> {
+            kahanAdd(left, right[0]);
+            kahanAdd(left, right[1]);
+        });
+        return state[0] + state[1];
+    }
+
+    public static <T> double kahanSum(Stream<T> stream, ToDoubleFunction<? super T> mapper) {
+        return kahanSum(stream.mapToDouble(mapper));
+    }
+
+    private static void kahanAdd(double[] state, double value) {
+        double sum = state[0];
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            state[1] += (sum - t) + value;
+        } else {
+            state[1] += (value - t) + sum;
+        }
+        state[0] = t;
+    }
+}
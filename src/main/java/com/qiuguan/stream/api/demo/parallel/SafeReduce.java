@@ -0,0 +1,158 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 16:40:12 Sunday
+ * <p>
+ * 并行 reduce 的前提是：identity 对累加器是单位元，累加器满足结合律。{@code ParallelReduceDemo} 里的 {@code a - b}
+ * 两条都不满足，并行结果和串行结果悄悄地不一样，而且只有数据量大到触发并行时才会暴露。
+ * <p>
+ * SafeReduce 先在真实数据的抽样上校验这两条，再决定怎么归约：
+ * <ul>
+ *     <li>两条都满足：{@code parallelStream().reduce(identity, op)}</li>
+ *     <li>只满足结合律：并行地做不带 identity 的 reduce，最后在最左边补一次 identity，结果等同于串行</li>
+ *     <li>不满足结合律：退回串行从左到右归约</li>
+ * </ul>
+ * 抽样校验只能发现问题，不能证明没有问题；已知满足结合律的求和、最值请直接用 {@link PrimitiveReducers}。
+ * <pre>
+ *     Integer result = SafeReduce.of(0, (Integer a, Integer b) -&gt; a - b).reduce(List.of(1, 2, 3, 4));
+ * </pre>
+ */
+public final class SafeReduce<T> {
+
+    private static final int DEFAULT_SAMPLE_SIZE = 32;
+
+    private final T identity;
+
+    private final BinaryOperator<T> op;
+
+    private int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+    private BiPredicate<? super T, ? super T> equality = Objects::equals;
+
+    private SafeReduce(T identity, BinaryOperator<T> op) {
+        this.identity = identity;
+        this.op = Objects.requireNonNull(op, "op");
+    }
+
+    public static <T> SafeReduce<T> of(T identity, BinaryOperator<T> op) {
+        return new SafeReduce<>(identity, op);
+    }
+
+    /**
+     * 抽样个数，结合律校验使用相邻的三元组，所以实际校验次数约等于抽样个数
+     */
+    public SafeReduce<T> sampleSize(int sampleSize) {
+        if (sampleSize < 3) {
+            throw new IllegalArgumentException("sampleSize must be at least 3: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        return this;
+    }
+
+    /**
+     * 结果相等的判断方式，默认 equals；浮点数运算可以换成带误差的比较
+     */
+    public SafeReduce<T> equality(BiPredicate<? super T, ? super T> equality) {
+        this.equality = Objects.requireNonNull(equality, "equality");
+        return this;
+    }
+
+    public Verification verify(List<? extends T> source) {
+        List<T> sample = sample(source);
+        String counterexample = null;
+        boolean identityHolds = true;
+        for (T item : sample) {
+            if (!equality.test(op.apply(identity, item), item) || !equality.test(op.apply(item, identity), item)) {
+                identityHolds = false;
+                counterexample = "identity " + identity + " is not neutral for " + item;
+                break;
+            }
+        }
+        boolean associative = true;
+        for (int i = 0; i + 2 < sample.size(); i++) {
+            T a = sample.get(i);
+            T b = sample.get(i + 1);
+            T c = sample.get(i + 2);
+            if (!equality.test(op.apply(op.apply(a, b), c), op.apply(a, op.apply(b, c)))) {
+                associative = false;
+                counterexample = "(" + a + " op " + b + ") op " + c + " != " + a + " op (" + b + " op " + c + ")";
+                break;
+            }
+        }
+        Strategy strategy = !associative ? Strategy.SEQUENTIAL
+                : identityHolds ? Strategy.PARALLEL : Strategy.PARALLEL_WITHOUT_IDENTITY;
+        return new Verification(identityHolds, associative, counterexample, strategy);
+    }
+
+    /**
+     * 先校验，再按校验结果选择归约方式，结果始终和串行的 {@code stream().reduce(identity, op)} 一致(在抽样能发现问题的前提下)
+     */
+    public T reduce(List<? extends T> source) {
+        return reduce(source, verify(source).getStrategy());
+    }
+
+    @SuppressWarnings("unchecked")
+    private T reduce(List<? extends T> source, Strategy strategy) {
+        //只读不写，当作 List<T> 使用是安全的
+        List<T> items = (List<T>) source;
+        switch (strategy) {
+            case PARALLEL:
+                return items.parallelStream().reduce(identity, op);
+            case PARALLEL_WITHOUT_IDENTITY:
+                Optional<T> reduced = items.parallelStream().reduce(op);
+                return reduced.map(value -> op.apply(identity, value)).orElse(identity);
+            default:
+                T result = identity;
+                for (T item : items) {
+                    result = op.apply(result, item);
+                }
+                return result;
+        }
+    }
+
+    private List<T> sample(List<? extends T> source) {
+        int size = source.size();
+        List<T> sample = new ArrayList<>(Math.min(size, sampleSize));
+        if (size <= sampleSize) {
+            sample.addAll(source);
+            return sample;
+        }
+        //等间距抽样，保证开头、中间、结尾的数据都能被校验到
+        double step = (double) (size - 1) / (sampleSize - 1);
+        for (int i = 0; i < sampleSize; i++) {
+            sample.add(source.get((int) Math.round(i * step)));
+        }
+        return sample;
+    }
+
+    public enum Strategy {
+        PARALLEL,
+        PARALLEL_WITHOUT_IDENTITY,
+        SEQUENTIAL
+    }
+
+    @Value
+    public static class Verification {
+
+        boolean identityHolds;
+
+        boolean associative;
+
+        /**
+         * 第一个反例，校验通过时为 null
+         */
+        String counterexample;
+
+        Strategy strategy;
+    }
+}
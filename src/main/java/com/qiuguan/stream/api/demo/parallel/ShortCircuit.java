@@ -0,0 +1,299 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 06:27:51 Monday
+ * <p>
+ * 可以提前取消的 anyMatch/allMatch/noneMatch/findAny/findFirst。谓词很贵的时候，并行流里一个任务已经找到答案，
+ * 兄弟任务却还要把手上的元素算完。这里所有拆分任务共享一个停止标记，逐批处理元素，每批开始前检查：
+ * <ul>
+ *     <li>批次大小自适应：一批耗时很短就加倍(最多 {@value #MAX_BATCH} 个)，耗时长就减半(最少 1 个)，
+ *     谓词越贵检查越频繁，找到答案后浪费的计算最多是每个线程一个批次</li>
+ *     <li>findFirst 找到匹配后，只取消它右边(遇到顺序更靠后)的任务，左边的任务继续找更靠前的匹配</li>
+ *     <li>带 {@link Duration} 或 {@link CancellationToken} 的版本超时或被取消时返回 {@link Match#UNKNOWN}，而不是猜一个答案</li>
+ * </ul>
+ * 流是并行的才会拆分，任务跑在调用线程所在的 ForkJoinPool(不在池中时是公共池)。
+ * <pre>
+ *     ShortCircuit.Match match = ShortCircuit.anyMatch(persons.parallelStream(), p -&gt; expensiveCheck(p), Duration.ofMillis(200));
+ * </pre>
+ */
+public final class ShortCircuit {
+
+    static final int MAX_BATCH = 1024;
+
+    /**
+     * 一批的目标耗时，低于下限加倍，高于上限减半
+     */
+    private static final long FAST_BATCH_NANOS = 20_000;
+
+    private static final long SLOW_BATCH_NANOS = 200_000;
+
+    public enum Match {
+        TRUE, FALSE, UNKNOWN
+    }
+
+    private ShortCircuit() {
+    }
+
+    public static <T> boolean anyMatch(Stream<T> stream, Predicate<? super T> predicate) {
+        return search(stream, predicate, false, CancellationToken.create()).found != null;
+    }
+
+    public static <T> boolean allMatch(Stream<T> stream, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        return !anyMatch(stream, predicate.negate());
+    }
+
+    public static <T> boolean noneMatch(Stream<T> stream, Predicate<? super T> predicate) {
+        return !anyMatch(stream, predicate);
+    }
+
+    /**
+     * 和 {@link Stream#findAny()} 一样，元素为 null 时抛 NullPointerException
+     */
+    public static <T> Optional<T> findAny(Stream<T> stream, Predicate<? super T> predicate) {
+        return search(stream, predicate, false, CancellationToken.create()).result();
+    }
+
+    /**
+     * 遇到顺序中第一个满足条件的元素
+     */
+    public static <T> Optional<T> findFirst(Stream<T> stream, Predicate<? super T> predicate) {
+        return search(stream, predicate, true, CancellationToken.create()).result();
+    }
+
+    public static <T> Match anyMatch(Stream<T> stream, Predicate<? super T> predicate, Duration budget) {
+        return anyMatch(stream, predicate, CancellationToken.withTimeout(budget));
+    }
+
+    /**
+     * 找到匹配为 TRUE，检查完所有元素都不匹配为 FALSE，还没得出结论就被取消或超时为 UNKNOWN
+     */
+    public static <T> Match anyMatch(Stream<T> stream, Predicate<? super T> predicate, CancellationToken token) {
+        Search<T> search = search(stream, predicate, false, Objects.requireNonNull(token, "token"));
+        if (search.found != null) {
+            return Match.TRUE;
+        }
+        return search.incomplete ? Match.UNKNOWN : Match.FALSE;
+    }
+
+    public static <T> Match allMatch(Stream<T> stream, Predicate<? super T> predicate, Duration budget) {
+        Objects.requireNonNull(predicate, "predicate");
+        return negate(anyMatch(stream, predicate.negate(), budget));
+    }
+
+    public static <T> Match noneMatch(Stream<T> stream, Predicate<? super T> predicate, Duration budget) {
+        return negate(anyMatch(stream, predicate, budget));
+    }
+
+    private static Match negate(Match match) {
+        return match == Match.TRUE ? Match.FALSE : match == Match.FALSE ? Match.TRUE : Match.UNKNOWN;
+    }
+
+    private static <T> Search<T> search(Stream<T> stream, Predicate<? super T> predicate, boolean ordered, CancellationToken token) {
+        Objects.requireNonNull(stream, "stream");
+        Objects.requireNonNull(predicate, "predicate");
+        Spliterator<T> spliterator = stream.spliterator();
+        long threshold = Long.MAX_VALUE;
+        if (stream.isParallel()) {
+            long size = spliterator.estimateSize();
+            //子任务 fork 到调用线程所在的池子，按它的并行度拆分；不在池中时 fork 到公共池
+            ForkJoinPool pool = ForkJoinTask.getPool();
+            int parallelism = pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+            threshold = size == Long.MAX_VALUE ? 1 : Math.max(1, size / ((long) parallelism << 2));
+        }
+        Search<T> search = new Search<>(predicate, ordered, token, threshold);
+        SearchTask<T> root = new SearchTask<>(null, spliterator, search);
+        root.invoke();
+        if (ordered) {
+            search.found = root.found;
+        }
+        return search;
+    }
+
+    /**
+     * 一次搜索共享的状态
+     */
+    private static final class Search<T> {
+
+        final Predicate<? super T> predicate;
+
+        final boolean ordered;
+
+        final CancellationToken token;
+
+        final long threshold;
+
+        /**
+         * 无序搜索找到答案后置为 true，所有任务停止
+         */
+        volatile boolean stopped;
+
+        /**
+         * 因为外部取消或超时跳过了元素
+         */
+        volatile boolean incomplete;
+
+        volatile Found<T> found;
+
+        Search(Predicate<? super T> predicate, boolean ordered, CancellationToken token, long threshold) {
+            this.predicate = predicate;
+            this.ordered = ordered;
+            this.token = token;
+            this.threshold = threshold;
+        }
+
+        Optional<T> result() {
+            return found == null ? Optional.empty() : Optional.of(found.value);
+        }
+    }
+
+    private static final class Found<T> {
+
+        final T value;
+
+        Found(T value) {
+            this.value = value;
+        }
+    }
+
+    private static final class SearchTask<T> extends CountedCompleter<Void> implements Consumer<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SearchTask<T> parent;
+
+        private final Search<T> search;
+
+        private Spliterator<T> spliterator;
+
+        private SearchTask<T> left;
+
+        private SearchTask<T> right;
+
+        /**
+         * findFirst：左边的任务找到了匹配，这个子树不用再找
+         */
+        private volatile boolean pruned;
+
+        private Found<T> found;
+
+        private T current;
+
+        SearchTask(SearchTask<T> parent, Spliterator<T> spliterator, Search<T> search) {
+            super(parent);
+            this.parent = parent;
+            this.spliterator = spliterator;
+            this.search = search;
+        }
+
+        @Override
+        public void compute() {
+            Spliterator<T> rs = spliterator;
+            Spliterator<T> ls;
+            SearchTask<T> task = this;
+            while (!task.stopped() && rs.estimateSize() > search.threshold && (ls = rs.trySplit()) != null) {
+                SearchTask<T> leftChild = new SearchTask<>(task, ls, search);
+                SearchTask<T> rightChild = new SearchTask<>(task, rs, search);
+                task.left = leftChild;
+                task.right = rightChild;
+                task.setPendingCount(1);
+                //先 fork 右边，自己继续处理左边，左边的匹配更早出现
+                rightChild.fork();
+                task = leftChild;
+                rs = ls;
+            }
+            task.spliterator = rs;
+            task.scan();
+            task.tryComplete();
+        }
+
+        @Override
+        public void accept(T value) {
+            current = value;
+        }
+
+        private void scan() {
+            Spliterator<T> rs = spliterator;
+            spliterator = null;
+            int batch = 1;
+            boolean more = true;
+            while (more) {
+                if (stopped()) {
+                    if (search.token.isCancelled() && !search.stopped) {
+                        search.incomplete = true;
+                    }
+                    return;
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < batch; i++) {
+                    if (!rs.tryAdvance(this)) {
+                        more = false;
+                        break;
+                    }
+                    T value = current;
+                    current = null;
+                    if (search.predicate.test(value)) {
+                        found(value);
+                        return;
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+                if (elapsed < FAST_BATCH_NANOS && batch < MAX_BATCH) {
+                    batch <<= 1;
+                } else if (elapsed > SLOW_BATCH_NANOS && batch > 1) {
+                    batch >>= 1;
+                }
+            }
+        }
+
+        private boolean stopped() {
+            if (search.stopped || search.token.isCancelled()) {
+                return true;
+            }
+            for (SearchTask<T> task = this; task != null; task = task.parent) {
+                if (task.pruned) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void found(T value) {
+            Found<T> result = new Found<>(value);
+            if (!search.ordered) {
+                search.found = result;
+                search.stopped = true;
+                return;
+            }
+            found = result;
+            //沿着父链往上，自己在左边时把右边的兄弟剪掉
+            SearchTask<T> node = this;
+            for (SearchTask<T> p = parent; p != null; node = p, p = p.parent) {
+                if (p.left == node && p.right != null) {
+                    p.right.pruned = true;
+                }
+            }
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (left != null) {
+                found = left.found != null ? left.found : right.found;
+                left = null;
+                right = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.qiuguan.stream.api.demo.parallel;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 15:02:40 Sunday
+ * <p>
+ * 虚拟线程的入口。项目默认仍以 JDK17 编译，所以通过 MethodHandle 查找
+ * {@code Executors.newVirtualThreadPerTaskExecutor()}：运行在 JDK21+ 上就用虚拟线程，
+ * 否则退回到最多 maxThreads 个守护平台线程的线程池。
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private static final AtomicInteger POOL_INDEX = new AtomicInteger();
+
+    private VirtualThreads() {
+    }
+
+    private static MethodHandle findVirtualExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    public static boolean available() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器；不支持虚拟线程时返回一个最多 maxThreads 个线程的线程池
+     */
+    public static ExecutorService newExecutor(int maxThreads) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("cannot create virtual thread executor", e);
+            }
+        }
+        String prefix = "platform-" + POOL_INDEX.incrementAndGet() + "-";
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
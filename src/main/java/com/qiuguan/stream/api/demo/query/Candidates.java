@@ -0,0 +1,60 @@
+package com.qiuguan.stream.api.demo.query;
+
+import java.util.List;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 09:57:18 Monday
+ * <p>
+ * 计划选出来的候选行：若干个 {@link PostingList}。exact 为 true 时候选行就是查询结果，
+ * 否则还要在候选行上逐行判断整个条件
+ */
+final class Candidates {
+
+    final List<PostingList> lists;
+
+    final boolean exact;
+
+    final String description;
+
+    /**
+     * 候选行恰好是 age 的闭区间 [min, max] 时为 true，两个区间 and 可以直接求交集
+     */
+    final boolean ageRange;
+
+    final int min;
+
+    final int max;
+
+    private Candidates(List<PostingList> lists, boolean exact, String description, boolean ageRange, int min, int max) {
+        this.lists = lists;
+        this.exact = exact;
+        this.description = description;
+        this.ageRange = ageRange;
+        this.min = min;
+        this.max = max;
+    }
+
+    static Candidates exact(List<PostingList> lists, String description) {
+        return new Candidates(lists, true, description, false, 0, 0);
+    }
+
+    static Candidates ageRange(List<PostingList> lists, int min, int max) {
+        return new Candidates(lists, true, "age[" + min + ", " + max + "]", true, min, max);
+    }
+
+    /**
+     * 同样的候选行，但只是条件的一部分，需要再判断
+     */
+    Candidates withResidual() {
+        return exact ? new Candidates(lists, false, description, false, 0, 0) : this;
+    }
+
+    long size() {
+        long size = 0;
+        for (PostingList list : lists) {
+            size += list.size();
+        }
+        return size;
+    }
+}
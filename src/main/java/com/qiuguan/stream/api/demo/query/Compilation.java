@@ -0,0 +1,55 @@
+package com.qiuguan.stream.api.demo.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 04:44:50 Monday
+ * <p>
+ * 一次查询的结构描述和常量，结构描述是计划缓存的 key
+ */
+final class Compilation {
+
+    final StringBuilder shape = new StringBuilder();
+
+    private final List<Integer> ints = new ArrayList<>();
+
+    private final List<Object> refs = new ArrayList<>();
+
+    void intConstant(int value) {
+        ints.add(value);
+        shape.append('?');
+    }
+
+    void refConstant(Object value) {
+        refs.add(value);
+        shape.append('?');
+    }
+
+    int[] ints() {
+        return ints.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    Object[] refs() {
+        return refs.toArray();
+    }
+
+    /**
+     * 编译时按同样的顺序给常量分配下标
+     */
+    static final class Counter {
+
+        private int ints;
+
+        private int refs;
+
+        int nextInt() {
+            return ints++;
+        }
+
+        int nextRef() {
+            return refs++;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 04:36:12 Monday
+ * <p>
+ * {@link PersonQuery} 的过滤条件，由 {@link IntField}、{@link StringField} 创建，可以用 and/or/not 组合。
+ * <p>
+ * 条件分成两部分：结构(shape)和常量。{@code AGE.gt(30)} 和 {@code AGE.gt(40)} 结构相同，编译出来的是同一份代码，
+ * 常量在执行时通过参数数组传进去，所以换个常量不会重新编译。
+ */
+public abstract class Condition {
+
+    static final MethodType TYPE = MethodType.methodType(boolean.class, Person.class, int[].class, Object[].class);
+
+    Condition() {
+    }
+
+    public Condition and(Condition other) {
+        return new Logical(this, Objects.requireNonNull(other, "other"), true);
+    }
+
+    public Condition or(Condition other) {
+        return new Logical(this, Objects.requireNonNull(other, "other"), false);
+    }
+
+    public Condition not() {
+        return new Not(this);
+    }
+
+    /**
+     * 写出结构描述，收集常量
+     */
+    abstract void describe(Compilation compilation);
+
+    /**
+     * 生成 (Person, int[], Object[])boolean 的 MethodHandle，常量的下标和 describe 的遍历顺序一致
+     */
+    abstract MethodHandle compile(Compilation.Counter counter) throws ReflectiveOperationException;
+
+    /**
+     * 在 {@link IndexedPersonCollection} 上选择索引，识别不了的条件返回 null，由调用方退回全表扫描
+     */
+    Candidates plan(IndexedPersonCollection collection) {
+        return null;
+    }
+
+    static MethodHandle constant(boolean value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, TYPE.parameterList());
+    }
+
+    private static final class Logical extends Condition {
+
+        private final Condition left;
+
+        private final Condition right;
+
+        private final boolean and;
+
+        Logical(Condition left, Condition right, boolean and) {
+            this.left = left;
+            this.right = right;
+            this.and = and;
+        }
+
+        @Override
+        void describe(Compilation compilation) {
+            compilation.shape.append(and ? "and(" : "or(");
+            left.describe(compilation);
+            compilation.shape.append(',');
+            right.describe(compilation);
+            compilation.shape.append(')');
+        }
+
+        @Override
+        Candidates plan(IndexedPersonCollection collection) {
+            //or 需要合并去重，直接扫描
+            return and ? collection.planAnd(left.plan(collection), right.plan(collection)) : null;
+        }
+
+        @Override
+        MethodHandle compile(Compilation.Counter counter) throws ReflectiveOperationException {
+            MethodHandle l = left.compile(counter);
+            MethodHandle r = right.compile(counter);
+            //短路：and 左边为 false、or 左边为 true 时不再计算右边
+            return and ? MethodHandles.guardWithTest(l, r, constant(false))
+                    : MethodHandles.guardWithTest(l, constant(true), r);
+        }
+    }
+
+    private static final class Not extends Condition {
+
+        private static final MethodHandle NOT;
+
+        static {
+            try {
+                NOT = MethodHandles.lookup().findStatic(Not.class, "not", MethodType.methodType(boolean.class, boolean.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        private static boolean not(boolean value) {
+            return !value;
+        }
+
+        @Override
+        void describe(Compilation compilation) {
+            compilation.shape.append("not(");
+            condition.describe(compilation);
+            compilation.shape.append(')');
+        }
+
+        @Override
+        MethodHandle compile(Compilation.Counter counter) throws ReflectiveOperationException {
+            return MethodHandles.filterReturnValue(condition.compile(counter), NOT);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:14:56 Monday
+ * <p>
+ * 查询计划的模板，本身从不直接加载。{@link QueryCompiler} 读取这个类的字节码，每种查询结构定义一个隐藏类(hidden class)，
+ * 条件和 select 的 MethodHandle 作为 class data 放进 static final 字段：
+ * <ul>
+ *     <li>static final 的 MethodHandle 对 JIT 是常量，invokeExact 会被完全内联，循环和手写的一样</li>
+ *     <li>每种结构是一个独立的类，各自的类型 profile 互不污染，不会因为见过很多 lambda 而变成 megamorphic 调用</li>
+ * </ul>
+ */
+final class FusedKernel implements Kernel {
+
+    /**
+     * (Person, int[], Object[])boolean
+     */
+    private static final MethodHandle CONDITION;
+
+    /**
+     * (Person)int
+     */
+    private static final MethodHandle SELECTOR;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CONDITION = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 0);
+            SELECTOR = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public long count(List<Person> rows, int[] ints, Object[] refs) {
+        try {
+            long count = 0;
+            for (int i = 0, n = rows.size(); i < n; i++) {
+                if ((boolean) CONDITION.invokeExact(rows.get(i), ints, refs)) {
+                    count++;
+                }
+            }
+            return count;
+        } catch (Throwable e) {
+            throw QueryCompiler.rethrow(e);
+        }
+    }
+
+    @Override
+    public long sum(List<Person> rows, int[] ints, Object[] refs) {
+        try {
+            long sum = 0;
+            for (int i = 0, n = rows.size(); i < n; i++) {
+                Person person = rows.get(i);
+                if ((boolean) CONDITION.invokeExact(person, ints, refs)) {
+                    sum += (int) SELECTOR.invokeExact(person);
+                }
+            }
+            return sum;
+        } catch (Throwable e) {
+            throw QueryCompiler.rethrow(e);
+        }
+    }
+
+    @Override
+    public void aggregate(List<Person> rows, int[] ints, Object[] refs, long[] result) {
+        try {
+            long count = 0;
+            long sum = 0;
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = 0, n = rows.size(); i < n; i++) {
+                Person person = rows.get(i);
+                if ((boolean) CONDITION.invokeExact(person, ints, refs)) {
+                    int value = (int) SELECTOR.invokeExact(person);
+                    count++;
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+            result[0] = count;
+            result[1] = sum;
+            result[2] = min;
+            result[3] = max;
+        } catch (Throwable e) {
+            throw QueryCompiler.rethrow(e);
+        }
+    }
+
+    @Override
+    public List<Person> filter(List<Person> rows, int[] ints, Object[] refs) {
+        try {
+            List<Person> result = new ArrayList<>();
+            for (int i = 0, n = rows.size(); i < n; i++) {
+                Person person = rows.get(i);
+                if ((boolean) CONDITION.invokeExact(person, ints, refs)) {
+                    result.add(person);
+                }
+            }
+            return result;
+        } catch (Throwable e) {
+            throw QueryCompiler.rethrow(e);
+        }
+    }
+
+    @Override
+    public int indexOf(List<Person> rows, int from, int[] ints, Object[] refs) {
+        try {
+            for (int i = from, n = rows.size(); i < n; i++) {
+                if ((boolean) CONDITION.invokeExact(rows.get(i), ints, refs)) {
+                    return i;
+                }
+            }
+            return -1;
+        } catch (Throwable e) {
+            throw QueryCompiler.rethrow(e);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 10:06:25 Monday
+ * <p>
+ * 带二级索引的 Person 集合。{@code filter(person -> person.getAge() > 30)}、{@code anyMatch(age > 100)} 在 List 上永远是全表扫描，
+ * 这里用 {@link PersonQuery} 的 {@link Condition} 描述条件，由一个简单的计划器选择索引：
+ * <ul>
+ *     <li>age：有序的 int 索引，gt/ge/lt/le/eq/ne/between 走范围查询，两个 age 范围 and 起来直接求交集</li>
+ *     <li>country、sex：哈希索引，eq</li>
+ *     <li>name：有序索引，eq 和 startsWith</li>
+ *     <li>and：选候选行最少的一边，再在候选行上判断整个条件</li>
+ *     <li>or、not 以及识别不了的条件：退回全表扫描，扫描用的是编译好的融合循环</li>
+ * </ul>
+ * 能被索引完整回答的查询(比如 {@code count(AGE.gt(30))}、{@code anyMatch(AGE.gt(100))})只和 age 的取值个数有关，
+ * 和行数无关，一千万行也是微秒级。
+ * <pre>
+ *     IndexedPersonCollection persons = new IndexedPersonCollection(list);
+ *     boolean any = persons.anyMatch(AGE.gt(100));
+ *     List&lt;Person&gt; chinese = persons.filter(COUNTRY.eq("中国").and(AGE.between(18, 60))).collect(Collectors.toList());
+ *     String plan = persons.explain(COUNTRY.eq("中国").and(AGE.between(18, 60)));
+ * </pre>
+ * 索引随 add/remove 增量维护；删除时把最后一行挪到空出来的位置，所以迭代顺序不是插入顺序。
+ * age 不能为 null(和 {@link PersonFields#AGE} 一致)；放进来之后不要再修改 Person 的字段，否则索引会失效。
+ * 写入不是线程安全的；{@link #filter} 返回的流是惰性的，消费完之前不要修改集合。
+ */
+public class IndexedPersonCollection extends AbstractCollection<Person> {
+
+    private Person[] rows = new Person[16];
+
+    private int size;
+
+    private int modCount;
+
+    private PostingIndex.Sorted ages = new PostingIndex.Sorted();
+
+    private PostingIndex.Hashed countries = new PostingIndex.Hashed();
+
+    private PostingIndex.Hashed sexes = new PostingIndex.Hashed();
+
+    private PostingIndex.Prefix names = new PostingIndex.Prefix();
+
+    public IndexedPersonCollection() {
+    }
+
+    public IndexedPersonCollection(Collection<? extends Person> persons) {
+        addAll(Objects.requireNonNull(persons, "persons"));
+    }
+
+    @Override
+    public boolean add(Person person) {
+        Objects.requireNonNull(person, "person");
+        Integer age = Objects.requireNonNull(person.getAge(), "age");
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size + (size >> 1));
+        }
+        int row = size++;
+        rows[row] = person;
+        ages.add(row, age);
+        countries.add(row, person.getCountry());
+        sexes.add(row, person.getSex());
+        names.add(row, person.getName());
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int row = find(o);
+        if (row < 0) {
+            return false;
+        }
+        removeRow(row);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return find(o) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        rows = new Person[16];
+        size = 0;
+        ages = new PostingIndex.Sorted();
+        countries = new PostingIndex.Hashed();
+        sexes = new PostingIndex.Hashed();
+        names = new PostingIndex.Prefix();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Person> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Spliterator<Person> spliterator() {
+        return Spliterators.spliterator(rows, 0, size, Spliterator.NONNULL);
+    }
+
+    /**
+     * 满足条件的 Person，顺序不固定
+     */
+    public Stream<Person> filter(Condition condition) {
+        Candidates candidates = plan(condition);
+        Person[] table = rows;
+        if (candidates != null && candidates.exact) {
+            return candidates.lists.stream().flatMap(list -> list.persons(table).stream());
+        }
+        Compilation compilation = new Compilation();
+        Kernel kernel = QueryCompiler.kernel(condition, null, compilation);
+        int[] ints = compilation.ints();
+        Object[] refs = compilation.refs();
+        if (candidates == null) {
+            List<Person> all = all();
+            return Stream.of(all).flatMap(list -> kernel.filter(list, ints, refs).stream());
+        }
+        return candidates.lists.stream().flatMap(list -> kernel.filter(list.persons(table), ints, refs).stream());
+    }
+
+    public long count(Condition condition) {
+        Candidates candidates = plan(condition);
+        if (candidates != null && candidates.exact) {
+            return candidates.size();
+        }
+        Compilation compilation = new Compilation();
+        Kernel kernel = QueryCompiler.kernel(condition, null, compilation);
+        if (candidates == null) {
+            return kernel.count(all(), compilation.ints(), compilation.refs());
+        }
+        long count = 0;
+        for (PostingList list : candidates.lists) {
+            count += kernel.count(list.persons(rows), compilation.ints(), compilation.refs());
+        }
+        return count;
+    }
+
+    public boolean anyMatch(Condition condition) {
+        Candidates candidates = plan(condition);
+        if (candidates != null && candidates.exact) {
+            return candidates.size() > 0;
+        }
+        Compilation compilation = new Compilation();
+        Kernel kernel = QueryCompiler.kernel(condition, null, compilation);
+        if (candidates == null) {
+            return kernel.indexOf(all(), 0, compilation.ints(), compilation.refs()) >= 0;
+        }
+        for (PostingList list : candidates.lists) {
+            if (kernel.indexOf(list.persons(rows), 0, compilation.ints(), compilation.refs()) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean noneMatch(Condition condition) {
+        return !anyMatch(condition);
+    }
+
+    public boolean allMatch(Condition condition) {
+        Candidates candidates = plan(condition);
+        if (candidates != null) {
+            //满足条件的行一定在候选行里，候选行不够所有行就不可能全部满足
+            if (candidates.size() < size) {
+                return false;
+            }
+            if (candidates.exact) {
+                return true;
+            }
+        }
+        return !anyMatch(condition.not());
+    }
+
+    /**
+     * 计划的文字描述，比如 {@code index age[31, 2147483647] (1234 rows)}、{@code index country=中国 + filter (500 candidates)}、{@code scan (10000 rows)}
+     */
+    public String explain(Condition condition) {
+        Candidates candidates = plan(condition);
+        if (candidates == null) {
+            return "scan (" + size + " rows)";
+        }
+        return candidates.exact ? "index " + candidates.description + " (" + candidates.size() + " rows)"
+                : "index " + candidates.description + " + filter (" + candidates.size() + " candidates)";
+    }
+
+    private Candidates plan(Condition condition) {
+        return Objects.requireNonNull(condition, "condition").plan(this);
+    }
+
+    Candidates plan(IntField field, String op, int value) {
+        if (field != PersonFields.AGE) {
+            return null;
+        }
+        switch (op) {
+            case "gt":
+                return ageRange(value + 1L, Integer.MAX_VALUE);
+            case "ge":
+                return ageRange(value, Integer.MAX_VALUE);
+            case "lt":
+                return ageRange(Integer.MIN_VALUE, value - 1L);
+            case "le":
+                return ageRange(Integer.MIN_VALUE, value);
+            case "eq":
+                return ageRange(value, value);
+            case "ne":
+                List<PostingList> lists = new ArrayList<>(ageRange(Integer.MIN_VALUE, value - 1L).lists);
+                lists.addAll(ageRange(value + 1L, Integer.MAX_VALUE).lists);
+                return Candidates.exact(lists, "age!=" + value);
+            default:
+                return null;
+        }
+    }
+
+    Candidates plan(StringField field, String op, String value) {
+        PostingIndex<String> index = field == PersonFields.COUNTRY ? countries
+                : field == PersonFields.SEX ? sexes
+                : field == PersonFields.NAME ? names : null;
+        if (index == null) {
+            return null;
+        }
+        if ("eq".equals(op)) {
+            PostingList list = index.list(value, false);
+            return Candidates.exact(list == null ? List.of() : List.of(list), field + "=" + value);
+        }
+        if ("startsWith".equals(op) && index == names) {
+            return Candidates.exact(names.startsWith(value), field + "^=" + value);
+        }
+        return null;
+    }
+
+    Candidates planAnd(Candidates left, Candidates right) {
+        if (left == null || right == null) {
+            return left == null ? right == null ? null : right.withResidual() : left.withResidual();
+        }
+        if (left.ageRange && right.ageRange) {
+            return ageRange(Math.max(left.min, right.min), Math.min(left.max, right.max));
+        }
+        return (left.size() <= right.size() ? left : right).withResidual();
+    }
+
+    /**
+     * 参数用 long，gt(Integer.MAX_VALUE)、lt(Integer.MIN_VALUE) 不会溢出成一个很大的区间
+     */
+    private Candidates ageRange(long min, long max) {
+        if (min > max) {
+            return Candidates.ageRange(List.of(), 0, -1);
+        }
+        return Candidates.ageRange(ages.range((int) min, (int) max), (int) min, (int) max);
+    }
+
+    private List<Person> all() {
+        return Arrays.asList(rows).subList(0, size);
+    }
+
+    /**
+     * 同名的行通常很少，用 name 索引缩小范围再 equals
+     */
+    private int find(Object o) {
+        if (!(o instanceof Person)) {
+            return -1;
+        }
+        PostingList list = names.list(((Person) o).getName(), false);
+        if (list == null) {
+            return -1;
+        }
+        for (int i = 0, n = list.size(); i < n; i++) {
+            int row = list.row(i);
+            if (rows[row].equals(o)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 删掉一行，再把最后一行挪过来填上，行号保持连续，全表扫描不用跳过空洞
+     */
+    private void removeRow(int row) {
+        Person person = rows[row];
+        ages.remove(row, person.getAge());
+        countries.remove(row, person.getCountry());
+        sexes.remove(row, person.getSex());
+        names.remove(row, person.getName());
+        int last = --size;
+        if (row != last) {
+            Person moved = rows[last];
+            ages.relabel(last, row, moved.getAge());
+            countries.relabel(last, row, moved.getCountry());
+            sexes.relabel(last, row, moved.getSex());
+            names.relabel(last, row, moved.getName());
+            rows[row] = moved;
+        }
+        rows[last] = null;
+        modCount++;
+    }
+
+    private final class Itr implements Iterator<Person> {
+
+        private int cursor;
+
+        private int lastReturned = -1;
+
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public Person next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (cursor >= size) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = cursor;
+            return rows[cursor++];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            //最后一行被挪到了 lastReturned，下一次从这里继续
+            removeRow(lastReturned);
+            cursor = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.qiuguan.stream.api.demo.query;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 04:52:08 Monday
+ * <p>
+ * int 类型的 Person 字段，比如 {@link PersonFields#AGE}，可以作为过滤条件，也可以作为 select 的列
+ */
+public final class IntField {
+
+    private static final MethodType COMPARE = MethodType.methodType(boolean.class, int.class, int[].class, int.class);
+
+    private final String name;
+
+    /**
+     * (Person)int
+     */
+    private final MethodHandle getter;
+
+    IntField(String name, MethodHandle getter) {
+        this.name = name;
+        this.getter = getter;
+    }
+
+    MethodHandle getter() {
+        return getter;
+    }
+
+    public Condition gt(int value) {
+        return new Comparison("gt", value);
+    }
+
+    public Condition ge(int value) {
+        return new Comparison("ge", value);
+    }
+
+    public Condition lt(int value) {
+        return new Comparison("lt", value);
+    }
+
+    public Condition le(int value) {
+        return new Comparison("le", value);
+    }
+
+    public Condition eq(int value) {
+        return new Comparison("eq", value);
+    }
+
+    public Condition ne(int value) {
+        return new Comparison("ne", value);
+    }
+
+    /**
+     * 闭区间 [min, max]
+     */
+    public Condition between(int min, int max) {
+        return ge(min).and(le(max));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    static boolean gt(int value, int[] ints, int index) {
+        return value > ints[index];
+    }
+
+    static boolean ge(int value, int[] ints, int index) {
+        return value >= ints[index];
+    }
+
+    static boolean lt(int value, int[] ints, int index) {
+        return value < ints[index];
+    }
+
+    static boolean le(int value, int[] ints, int index) {
+        return value <= ints[index];
+    }
+
+    static boolean eq(int value, int[] ints, int index) {
+        return value == ints[index];
+    }
+
+    static boolean ne(int value, int[] ints, int index) {
+        return value != ints[index];
+    }
+
+    private final class Comparison extends Condition {
+
+        private final String op;
+
+        private final int value;
+
+        Comparison(String op, int value) {
+            this.op = op;
+            this.value = value;
+        }
+
+        @Override
+        void describe(Compilation compilation) {
+            compilation.shape.append(op).append('(').append(name).append(',');
+            compilation.intConstant(value);
+            compilation.shape.append(')');
+        }
+
+        @Override
+        Candidates plan(IndexedPersonCollection collection) {
+            return collection.plan(IntField.this, op, value);
+        }
+
+        @Override
+        MethodHandle compile(Compilation.Counter counter) throws ReflectiveOperationException {
+            MethodHandle compare = MethodHandles.lookup().findStatic(IntField.class, op, COMPARE);
+            //(int, int[], int) -> (int, int[]) -> (Person, int[]) -> (Person, int[], Object[])
+            MethodHandle bound = MethodHandles.insertArguments(compare, 2, counter.nextInt());
+            MethodHandle onPerson = MethodHandles.filterArguments(bound, 0, getter);
+            return MethodHandles.dropArguments(onPerson, 2, Object[].class);
+        }
+    }
+}
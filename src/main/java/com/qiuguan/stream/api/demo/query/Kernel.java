@@ -0,0 +1,30 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.util.List;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:10:27 Monday
+ * <p>
+ * 编译好的查询计划，每种查询结构一个实现类(见 {@link FusedKernel})，rows 必须支持随机访问
+ */
+interface Kernel {
+
+    long count(List<Person> rows, int[] ints, Object[] refs);
+
+    long sum(List<Person> rows, int[] ints, Object[] refs);
+
+    /**
+     * 一遍扫描写出 count、sum、min、max
+     */
+    void aggregate(List<Person> rows, int[] ints, Object[] refs, long[] result);
+
+    List<Person> filter(List<Person> rows, int[] ints, Object[] refs);
+
+    /**
+     * 从 from 开始第一个满足条件的下标，没有返回 -1，用于 anyMatch 这类找到就停的查询
+     */
+    int indexOf(List<Person> rows, int from, int[] ints, Object[] refs);
+}
@@ -0,0 +1,39 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:03:44 Monday
+ * <p>
+ * {@link PersonQuery} 可用的字段，建议静态导入：{@code where(AGE.gt(30)).select(AGE).sum()}
+ */
+public final class PersonFields {
+
+    /**
+     * age 为 null 时执行查询会抛 NullPointerException，和 {@code mapToInt(Person::getAge)} 一致
+     */
+    public static final IntField AGE = new IntField("age",
+            getter("getAge", Integer.class).asType(MethodType.methodType(int.class, Person.class)));
+
+    public static final StringField NAME = new StringField("name", getter("getName", String.class));
+
+    public static final StringField SEX = new StringField("sex", getter("getSex", String.class));
+
+    public static final StringField COUNTRY = new StringField("country", getter("getCountry", String.class));
+
+    private PersonFields() {
+    }
+
+    private static MethodHandle getter(String name, Class<?> type) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Person.class, name, MethodType.methodType(type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.RandomAccess;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:37:40 Monday
+ * <p>
+ * Person 上的小型查询 DSL。{@code stream().filter(...).mapToInt(...).sum()} 每个元素要经过好几层 Sink 和 lambda 调用，
+ * 热点代码里的 lambda 种类一多，JIT 就不再内联。这里每种查询结构编译成一个融合后的循环(见 {@link FusedKernel})：
+ * <pre>
+ *     import static com.qiuguan.stream.api.demo.query.PersonFields.*;
+ *
+ *     long sum = PersonQuery.from(persons).where(AGE.gt(30)).select(AGE).sum();
+ *     long chinese = PersonQuery.from(persons).where(COUNTRY.eq("中国").and(AGE.between(18, 60))).count();
+ * </pre>
+ * 编译出来的计划按结构缓存，{@code AGE.gt(30)} 和 {@code AGE.gt(40)} 共用同一个计划。
+ * 查询是单线程执行的；JDK17 上 Vector API 还是孵化模块，这里不使用。
+ */
+public final class PersonQuery {
+
+    private final List<Person> rows;
+
+    private Condition condition;
+
+    private PersonQuery(List<Person> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * 不支持随机访问的集合会先复制一份
+     */
+    public static PersonQuery from(Collection<Person> persons) {
+        Objects.requireNonNull(persons, "persons");
+        if (persons instanceof List && persons instanceof RandomAccess) {
+            return new PersonQuery((List<Person>) persons);
+        }
+        return new PersonQuery(new ArrayList<>(persons));
+    }
+
+    /**
+     * 多次调用时条件之间是 and
+     */
+    public PersonQuery where(Condition condition) {
+        Objects.requireNonNull(condition, "condition");
+        this.condition = this.condition == null ? condition : this.condition.and(condition);
+        return this;
+    }
+
+    public Selection select(IntField field) {
+        return new Selection(Objects.requireNonNull(field, "field"));
+    }
+
+    public long count() {
+        Compilation compilation = new Compilation();
+        return QueryCompiler.kernel(condition, null, compilation).count(rows, compilation.ints(), compilation.refs());
+    }
+
+    public List<Person> list() {
+        Compilation compilation = new Compilation();
+        return QueryCompiler.kernel(condition, null, compilation).filter(rows, compilation.ints(), compilation.refs());
+    }
+
+    /**
+     * select 一个 int 列之后的聚合
+     */
+    public final class Selection {
+
+        private final IntField field;
+
+        private Selection(IntField field) {
+            this.field = field;
+        }
+
+        public long sum() {
+            Compilation compilation = new Compilation();
+            return QueryCompiler.kernel(condition, field, compilation).sum(rows, compilation.ints(), compilation.refs());
+        }
+
+        public IntSummaryStatistics statistics() {
+            Compilation compilation = new Compilation();
+            long[] result = new long[4];
+            QueryCompiler.kernel(condition, field, compilation).aggregate(rows, compilation.ints(), compilation.refs(), result);
+            return result[0] == 0 ? new IntSummaryStatistics()
+                    : new IntSummaryStatistics(result[0], (int) result[2], (int) result[3], result[1]);
+        }
+
+        public OptionalDouble average() {
+            IntSummaryStatistics statistics = statistics();
+            return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+        }
+
+        public OptionalInt min() {
+            IntSummaryStatistics statistics = statistics();
+            return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMin());
+        }
+
+        public OptionalInt max() {
+            IntSummaryStatistics statistics = statistics();
+            return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMax());
+        }
+    }
+}
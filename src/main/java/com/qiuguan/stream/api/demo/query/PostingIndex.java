@@ -0,0 +1,176 @@
+package com.qiuguan.stream.api.demo.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 09:48:33 Monday
+ * <p>
+ * {@link IndexedPersonCollection} 的二级索引：key 到 {@link PostingList} 的映射，外加每一行在自己的 PostingList 里的位置，
+ * 这样插入、删除、行号搬家都是 O(1) 加一次 key 查找，不需要重建索引。
+ * <ul>
+ *     <li>{@link Sorted}：int key 的有序数组，用于 age 的范围查询</li>
+ *     <li>{@link Hashed}：HashMap，用于 country、sex 的等值查询，允许 null</li>
+ *     <li>{@link Prefix}：TreeMap，用于 name 的等值和前缀查询</li>
+ * </ul>
+ */
+abstract class PostingIndex<K> {
+
+    private int[] positions = new int[16];
+
+    /**
+     * @param create key 不存在时是否创建
+     */
+    abstract PostingList list(K key, boolean create);
+
+    /**
+     * 列表被删空之后移除这个 key，让范围查询不用跳过空列表
+     */
+    abstract void drop(K key);
+
+    final void add(int row, K key) {
+        if (row >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(row + 1, positions.length + (positions.length >> 1)));
+        }
+        positions[row] = list(key, true).add(row);
+    }
+
+    final void remove(int row, K key) {
+        PostingList list = list(key, false);
+        int moved = list.removeAt(positions[row]);
+        if (moved >= 0) {
+            positions[moved] = positions[row];
+        }
+        if (list.isEmpty()) {
+            drop(key);
+        }
+    }
+
+    /**
+     * 行号从 from 改成 to，to 必须已经不在索引里
+     */
+    final void relabel(int from, int to, K key) {
+        int position = positions[from];
+        list(key, false).relabel(position, to);
+        positions[to] = position;
+    }
+
+    static final class Sorted extends PostingIndex<Integer> {
+
+        private int[] keys = new int[16];
+
+        private PostingList[] lists = new PostingList[16];
+
+        private int size;
+
+        @Override
+        PostingList list(Integer key, boolean create) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return lists[index];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertion = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                lists = Arrays.copyOf(lists, size << 1);
+            }
+            System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+            System.arraycopy(lists, insertion, lists, insertion + 1, size - insertion);
+            keys[insertion] = key;
+            lists[insertion] = new PostingList();
+            size++;
+            return lists[insertion];
+        }
+
+        @Override
+        void drop(Integer key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(lists, index + 1, lists, index, size - index - 1);
+            lists[--size] = null;
+        }
+
+        /**
+         * 闭区间 [min, max] 内所有 key 的列表，按 key 升序
+         */
+        List<PostingList> range(int min, int max) {
+            List<PostingList> result = new ArrayList<>();
+            if (min > max) {
+                return result;
+            }
+            int from = Arrays.binarySearch(keys, 0, size, min);
+            from = from >= 0 ? from : -from - 1;
+            for (int i = from; i < size && keys[i] <= max; i++) {
+                result.add(lists[i]);
+            }
+            return result;
+        }
+    }
+
+    static final class Hashed extends PostingIndex<String> {
+
+        private final Map<String, PostingList> lists = new HashMap<>();
+
+        @Override
+        PostingList list(String key, boolean create) {
+            return create ? lists.computeIfAbsent(key, k -> new PostingList()) : lists.get(key);
+        }
+
+        @Override
+        void drop(String key) {
+            lists.remove(key);
+        }
+    }
+
+    static final class Prefix extends PostingIndex<String> {
+
+        private final TreeMap<String, PostingList> lists = new TreeMap<>();
+
+        /**
+         * TreeMap 不能放 null，姓名为 null 的行单独放
+         */
+        private PostingList nulls;
+
+        @Override
+        PostingList list(String key, boolean create) {
+            if (key == null) {
+                if (nulls == null && create) {
+                    nulls = new PostingList();
+                }
+                return nulls;
+            }
+            return create ? lists.computeIfAbsent(key, k -> new PostingList()) : lists.get(key);
+        }
+
+        @Override
+        void drop(String key) {
+            if (key == null) {
+                nulls = null;
+            } else {
+                lists.remove(key);
+            }
+        }
+
+        /**
+         * 以 prefix 开头的所有 key 在 TreeMap 里是连续的一段，从 prefix 开始往后读到第一个不匹配的为止
+         */
+        List<PostingList> startsWith(String prefix) {
+            List<PostingList> result = new ArrayList<>();
+            for (Map.Entry<String, PostingList> entry : lists.tailMap(prefix, true).entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+                result.add(entry.getValue());
+            }
+            return result;
+        }
+    }
+}
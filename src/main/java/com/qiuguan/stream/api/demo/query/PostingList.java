@@ -0,0 +1,89 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 09:41:06 Monday
+ * <p>
+ * 索引里一个 key 对应的行号列表。删除时把最后一个行号挪到被删的位置，O(1)，代价是列表内部没有顺序
+ */
+final class PostingList {
+
+    private int[] rows = new int[4];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int row(int position) {
+        return rows[position];
+    }
+
+    /**
+     * @return 新行号所在的位置
+     */
+    int add(int row) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size + (size >> 1));
+        }
+        rows[size] = row;
+        return size++;
+    }
+
+    /**
+     * @return 被挪到 position 上的行号，删除的正好是最后一个时返回 -1
+     */
+    int removeAt(int position) {
+        int last = --size;
+        if (position == last) {
+            return -1;
+        }
+        rows[position] = rows[last];
+        return rows[position];
+    }
+
+    /**
+     * 行号整体搬家(见 {@link IndexedPersonCollection} 删除时的压缩)，位置不变
+     */
+    void relabel(int position, int row) {
+        rows[position] = row;
+    }
+
+    /**
+     * 按行号取出 Person 的视图，供编译好的查询直接遍历
+     */
+    List<Person> persons(Person[] table) {
+        return new Persons(table);
+    }
+
+    private final class Persons extends AbstractList<Person> implements RandomAccess {
+
+        private final Person[] table;
+
+        Persons(Person[] table) {
+            this.table = table;
+        }
+
+        @Override
+        public Person get(int index) {
+            return table[rows[index]];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.qiuguan.stream.api.demo.query;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 05:26:03 Monday
+ * <p>
+ * 把查询编译成 {@link Kernel}：条件和 select 先拼成 MethodHandle，再用 {@link FusedKernel} 的字节码定义一个隐藏类。
+ * 编译结果按查询结构缓存，结构只由代码里写了哪些查询决定，数量有限，缓存不做淘汰。
+ */
+final class QueryCompiler {
+
+    private static final String TEMPLATE = "FusedKernel.class";
+
+    private static final MethodHandle NO_SELECTOR = MethodHandles.dropArguments(
+            MethodHandles.constant(int.class, 0), 0, Person.class);
+
+    private static final Map<String, Kernel> PLANS = new ConcurrentHashMap<>();
+
+    private static volatile byte[] template;
+
+    private QueryCompiler() {
+    }
+
+    /**
+     * @param condition 为 null 时匹配所有行
+     * @param selector  为 null 时只能用于 count、filter
+     */
+    static Kernel kernel(Condition condition, IntField selector, Compilation compilation) {
+        if (condition == null) {
+            compilation.shape.append("true");
+        } else {
+            condition.describe(compilation);
+        }
+        compilation.shape.append("|select(").append(selector).append(')');
+        return PLANS.computeIfAbsent(compilation.shape.toString(), shape -> compile(condition, selector));
+    }
+
+    static int cachedPlans() {
+        return PLANS.size();
+    }
+
+    private static Kernel compile(Condition condition, IntField selector) {
+        try {
+            MethodHandle predicate = condition == null ? Condition.constant(true) : condition.compile(new Compilation.Counter());
+            MethodHandle select = selector == null ? NO_SELECTOR : selector.getter();
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(template(), List.of(predicate, select), true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class));
+            return (Kernel) constructor.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot compile query", e);
+        }
+    }
+
+    private static byte[] template() throws IOException {
+        byte[] bytes = template;
+        if (bytes == null) {
+            try (InputStream in = QueryCompiler.class.getResourceAsStream(TEMPLATE)) {
+                if (in == null) {
+                    throw new IllegalStateException("missing " + TEMPLATE);
+                }
+                bytes = in.readAllBytes();
+            }
+            template = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * invokeExact 声明了 Throwable，实际只会抛出条件和字段读取里的运行时异常
+     */
+    static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,86 @@
+package com.qiuguan.stream.api.demo.query;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 04:59:31 Monday
+ * <p>
+ * String 类型的 Person 字段，比如 {@link PersonFields#COUNTRY}，只能作为过滤条件
+ */
+public final class StringField {
+
+    private static final MethodType MATCH = MethodType.methodType(boolean.class, String.class, Object[].class, int.class);
+
+    private final String name;
+
+    /**
+     * (Person)String
+     */
+    private final MethodHandle getter;
+
+    StringField(String name, MethodHandle getter) {
+        this.name = name;
+        this.getter = getter;
+    }
+
+    /**
+     * 和 {@link Objects#equals} 一致，可以用 null 匹配 null
+     */
+    public Condition eq(String value) {
+        return new Match("eq", value);
+    }
+
+    public Condition startsWith(String prefix) {
+        return new Match("startsWith", Objects.requireNonNull(prefix, "prefix"));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    static boolean eq(String value, Object[] refs, int index) {
+        return Objects.equals(value, refs[index]);
+    }
+
+    static boolean startsWith(String value, Object[] refs, int index) {
+        return value != null && value.startsWith((String) refs[index]);
+    }
+
+    private final class Match extends Condition {
+
+        private final String op;
+
+        private final String value;
+
+        Match(String op, String value) {
+            this.op = op;
+            this.value = value;
+        }
+
+        @Override
+        void describe(Compilation compilation) {
+            compilation.shape.append(op).append('(').append(name).append(',');
+            compilation.refConstant(value);
+            compilation.shape.append(')');
+        }
+
+        @Override
+        Candidates plan(IndexedPersonCollection collection) {
+            return collection.plan(StringField.this, op, value);
+        }
+
+        @Override
+        MethodHandle compile(Compilation.Counter counter) throws ReflectiveOperationException {
+            MethodHandle match = MethodHandles.lookup().findStatic(StringField.class, op, MATCH);
+            //(String, Object[], int) -> (String, Object[]) -> (Person, Object[]) -> (Person, int[], Object[])
+            MethodHandle bound = MethodHandles.insertArguments(match, 2, counter.nextRef());
+            MethodHandle onPerson = MethodHandles.filterArguments(bound, 0, getter);
+            return MethodHandles.dropArguments(onPerson, 1, int[].class);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.qiuguan.stream.api.demo.sort;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 03:40:02 Monday
+ * <p>
+ * {@link ExternalSort} 溢写到磁盘时使用的二进制编解码，常用的实现见 {@link Codecs}。
+ */
+public interface Codec<T> {
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    /**
+     * 元素在堆上大约占多少字节，用来判断内存预算是否用完，不需要精确
+     */
+    long heapSize(T value);
+}
@@ -0,0 +1,103 @@
+package com.qiuguan.stream.api.demo.sort;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 03:44:39 Monday
+ * <p>
+ * 常用的 {@link Codec}。字符串写成 长度 + UTF-8 字节，长度 -1 表示 null，没有 writeUTF 的 64KB 限制。
+ */
+public final class Codecs {
+
+    /**
+     * 对象头 + 引用的粗略估计
+     */
+    private static final int OBJECT_OVERHEAD = 16;
+
+    private static final Codec<String> STRINGS = new Codec<>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            writeString(value, out);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return readString(in);
+        }
+
+        @Override
+        public long heapSize(String value) {
+            return stringSize(value);
+        }
+    };
+
+    private static final Codec<Person> PERSONS = new Codec<>() {
+        @Override
+        public void write(Person person, DataOutput out) throws IOException {
+            writeString(person.getName(), out);
+            //age 是 Integer，用 Integer.MIN_VALUE 表示 null
+            out.writeInt(person.getAge() == null ? Integer.MIN_VALUE : person.getAge());
+            writeString(person.getSex(), out);
+            writeString(person.getCountry(), out);
+        }
+
+        @Override
+        public Person read(DataInput in) throws IOException {
+            String name = readString(in);
+            int age = in.readInt();
+            String sex = readString(in);
+            String country = readString(in);
+            return new Person(name, age == Integer.MIN_VALUE ? null : age, sex, country);
+        }
+
+        @Override
+        public long heapSize(Person person) {
+            return OBJECT_OVERHEAD + 4 * 4 + OBJECT_OVERHEAD
+                    + stringSize(person.getName()) + stringSize(person.getSex()) + stringSize(person.getCountry());
+        }
+    };
+
+    private Codecs() {
+    }
+
+    public static Codec<String> strings() {
+        return STRINGS;
+    }
+
+    public static Codec<Person> persons() {
+        return PERSONS;
+    }
+
+    static void writeString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * String 对象 + byte[]，按非 Latin1 的 2 字节一个字符估计
+     */
+    private static long stringSize(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD * 3 + 2L * value.length();
+    }
+}
@@ -0,0 +1,369 @@
+package com.qiuguan.stream.api.demo.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-19 03:58:17 Monday
+ * <p>
+ * 外部排序：{@code sorted()} 要把所有元素放进内存才能输出第一个，数据比堆大时直接 OOM。
+ * {@link #sortedExternal} 的做法：
+ * <ol>
+ *     <li>按遇到顺序读取元素，累计的 {@link Codec#heapSize} 达到内存预算时，用 {@link Arrays#parallelSort} 排好这一段(run)</li>
+ *     <li>把排好的 run 用 Codec 写成二进制临时文件，清空缓冲区继续读</li>
+ *     <li>所有 run 做 k 路归并，归并是惰性的，下游取一个才读一个，第一个结果不需要等归并结束；
+ *     run 太多时先分组归并，同时打开的文件不超过 {@value #MAX_FAN_IN} 个</li>
+ * </ol>
+ * 排序是稳定的：run 内部用稳定的 parallelSort，run 之间比较相等时先取靠前的 run。
+ * 数据一次就能放进预算时不会写任何文件。
+ * <p>
+ * 临时文件在每个 run 读完时删除，流读完或者关闭时删除整个临时目录；没有读完就放弃的流请用 try-with-resources 关闭：
+ * <pre>
+ *     try (Stream&lt;Person&gt; sorted = ExternalSort.sortedExternal(persons,
+ *             Comparator.comparing(Person::getName), 64L &lt;&lt; 20, Codecs.persons())) {
+ *         sorted.limit(10).forEach(System.out::println);
+ *     }
+ * </pre>
+ */
+public final class ExternalSort {
+
+    static final int MAX_FAN_IN = 64;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 缓冲区里每个元素的引用和 parallelSort 临时数组的开销
+     */
+    private static final int REFERENCE_OVERHEAD = 8;
+
+    private ExternalSort() {
+    }
+
+    public static <T> Stream<T> sortedExternal(Stream<T> stream, Comparator<? super T> comparator, long memoryBudget, Codec<T> codec) {
+        return sortedExternal(stream, comparator, memoryBudget, codec, null);
+    }
+
+    /**
+     * @param tempDirectory 临时文件的父目录，null 时使用 java.io.tmpdir
+     */
+    public static <T> Stream<T> sortedExternal(Stream<T> stream, Comparator<? super T> comparator, long memoryBudget,
+                                               Codec<T> codec, Path tempDirectory) {
+        Objects.requireNonNull(stream, "stream");
+        Objects.requireNonNull(comparator, "comparator");
+        Objects.requireNonNull(codec, "codec");
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+        }
+        MergeSpliterator<T> spliterator = new MergeSpliterator<>(stream, comparator, memoryBudget, codec, tempDirectory);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::close)
+                .onClose(stream::close);
+    }
+
+    private static final class MergeSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Stream<T> source;
+
+        private final Comparator<? super T> comparator;
+
+        private final long memoryBudget;
+
+        private final Codec<T> codec;
+
+        private final Path tempParent;
+
+        private Path directory;
+
+        private int nextFile;
+
+        private boolean started;
+
+        private boolean closed;
+
+        /**
+         * 没有溢写时直接从内存输出
+         */
+        private Iterator<T> inMemory;
+
+        private PriorityQueue<RunReader<T>> heads;
+
+        private final List<RunReader<T>> readers = new ArrayList<>();
+
+        MergeSpliterator(Stream<T> source, Comparator<? super T> comparator, long memoryBudget, Codec<T> codec, Path tempParent) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.SORTED);
+            this.source = source;
+            this.comparator = comparator;
+            this.memoryBudget = memoryBudget;
+            this.codec = codec;
+            this.tempParent = tempParent;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            if (!started) {
+                started = true;
+                try {
+                    start();
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException(e);
+                } catch (RuntimeException | Error e) {
+                    close();
+                    throw e;
+                }
+            }
+            if (inMemory != null) {
+                if (!inMemory.hasNext()) {
+                    return false;
+                }
+                action.accept(inMemory.next());
+                return true;
+            }
+            RunReader<T> reader = heads.poll();
+            if (reader == null) {
+                //归并完成，马上删除临时目录，不依赖调用方 close
+                close();
+                return false;
+            }
+            T value = reader.head;
+            try {
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.closeAndDelete();
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            action.accept(value);
+            return true;
+        }
+
+        private void start() throws IOException {
+            List<Run> runs = new ArrayList<>();
+            List<T> buffer = new ArrayList<>();
+            long bytes = 0;
+            Iterator<T> iterator = source.iterator();
+            while (iterator.hasNext()) {
+                T value = iterator.next();
+                buffer.add(value);
+                bytes += codec.heapSize(value) + REFERENCE_OVERHEAD;
+                if (bytes >= memoryBudget) {
+                    runs.add(spill(sort(buffer)));
+                    buffer.clear();
+                    bytes = 0;
+                }
+            }
+            if (runs.isEmpty()) {
+                inMemory = sort(buffer).iterator();
+                return;
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(sort(buffer)));
+            }
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs);
+            }
+            heads = new PriorityQueue<>(runs.size(), this::compareHeads);
+            for (Run run : runs) {
+                RunReader<T> reader = open(run);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.closeAndDelete();
+                }
+            }
+        }
+
+        /**
+         * 比较相等时取编号小(更靠前)的 run，保证稳定
+         */
+        private int compareHeads(RunReader<T> left, RunReader<T> right) {
+            int result = comparator.compare(left.head, right.head);
+            return result != 0 ? result : Integer.compare(left.run.order, right.run.order);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> sort(List<T> buffer) {
+            Object[] values = buffer.toArray();
+            //Object[] 的 parallelSort 是稳定的归并排序
+            Arrays.parallelSort(values, (Comparator<Object>) comparator);
+            return (List<T>) Arrays.asList(values);
+        }
+
+        private Run spill(List<T> sorted) throws IOException {
+            Run run = newRun();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run.file), BUFFER_SIZE))) {
+                for (T value : sorted) {
+                    codec.write(value, out);
+                }
+            }
+            run.count = sorted.size();
+            return run;
+        }
+
+        /**
+         * 相邻的 MAX_FAN_IN 个 run 归并成一个，run 的先后顺序不变，稳定性不受影响
+         */
+        private List<Run> mergePass(List<Run> runs) throws IOException {
+            List<Run> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                List<Run> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+                PriorityQueue<RunReader<T>> queue = new PriorityQueue<>(group.size(), this::compareHeads);
+                for (Run run : group) {
+                    RunReader<T> reader = open(run);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.closeAndDelete();
+                    }
+                }
+                Run target = newRun();
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target.file), BUFFER_SIZE))) {
+                    RunReader<T> reader;
+                    while ((reader = queue.poll()) != null) {
+                        codec.write(reader.head, out);
+                        target.count++;
+                        if (reader.advance()) {
+                            queue.add(reader);
+                        } else {
+                            reader.closeAndDelete();
+                        }
+                    }
+                }
+                merged.add(target);
+            }
+            return merged;
+        }
+
+        private Run newRun() throws IOException {
+            if (directory == null) {
+                directory = tempParent == null
+                        ? Files.createTempDirectory("sorted-external")
+                        : Files.createTempDirectory(tempParent, "sorted-external");
+            }
+            int order = nextFile++;
+            return new Run(directory.resolve("run-" + order), order);
+        }
+
+        private RunReader<T> open(Run run) throws IOException {
+            RunReader<T> reader = new RunReader<>(run, codec);
+            readers.add(reader);
+            return reader;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            inMemory = null;
+            heads = null;
+            for (RunReader<T> reader : readers) {
+                reader.closeQuietly();
+            }
+            readers.clear();
+            if (directory != null) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(directory);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static final class Run {
+
+        final Path file;
+
+        final int order;
+
+        long count;
+
+        Run(Path file, int order) {
+            this.file = file;
+            this.order = order;
+        }
+    }
+
+    private static final class RunReader<T> {
+
+        final Run run;
+
+        private final Codec<T> codec;
+
+        private final DataInputStream in;
+
+        private long remaining;
+
+        private boolean closed;
+
+        T head;
+
+        RunReader(Run run, Codec<T> codec) throws IOException {
+            this.run = run;
+            this.codec = codec;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file), BUFFER_SIZE));
+            this.remaining = run.count;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            head = codec.read(in);
+            remaining--;
+            return true;
+        }
+
+        void closeAndDelete() throws IOException {
+            closeQuietly();
+            Files.deleteIfExists(run.file);
+        }
+
+        void closeQuietly() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                //只读的文件，关闭失败不影响结果
+            }
+        }
+    }
+}
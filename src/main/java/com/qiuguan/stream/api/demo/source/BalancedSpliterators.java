@@ -0,0 +1,206 @@
+package com.qiuguan.stream.api.demo.source;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 21:20:40 Sunday
+ * <p>
+ * {@code CreateStreamApiDemo} 里的 {@code Stream.iterate}、{@code Stream.generate(...).limit(5)}、{@code Stream.builder()}、
+ * {@code Stream.concat} 这些数据源要么大小未知，要么拆分效果很差，加上 {@code .parallel()} 之后
+ * 要么只有一个核在干活，要么把时间浪费在过小的任务上。
+ * <p>
+ * {@link #balanced(Spliterator)}：拆分时从数据源顺序拉取一批元素放进数组，这一批是 SIZED|SUBSIZED 的，可以继续均匀对半拆分。
+ * 批大小根据已经处理完的批次里"每个元素的实际耗时"调整，让每一批的工作量接近 {@link #TARGET_BATCH_NANOS}：
+ * 元素很便宜时批次大，减少任务开销；元素很贵时批次小，避免一批就占满一个核。
+ * <p>
+ * {@link #iterate(int, int, int)}：有界的等差数列，按下标算术拆分，代替 {@code Stream.iterate(2, n -> n <= 20, n -> n + 2)}。
+ */
+public final class BalancedSpliterators {
+
+    /**
+     * 每一批希望的处理时间，远大于一次 fork/join 的开销(几十微秒)
+     */
+    static final long TARGET_BATCH_NANOS = 1_000_000;
+
+    private static final int MIN_BATCH = 16;
+
+    private static final int MAX_BATCH = 1 << 20;
+
+    private BalancedSpliterators() {
+    }
+
+    public static <T> Spliterator<T> balanced(Spliterator<T> source) {
+        return new BatchingSpliterator<>(Objects.requireNonNull(source, "source"), new CostModel());
+    }
+
+    /**
+     * 把一个拆分效果差的流换成按批拆分的并行流
+     */
+    public static <T> Stream<T> balanced(Stream<T> source) {
+        return StreamSupport.stream(balanced(source.spliterator()), true).onClose(source::close);
+    }
+
+    /**
+     * 等价于 {@code IntStream.iterate(seed, n -> step > 0 ? n <= last : n >= last, n -> n + step)}，
+     * 但大小已知，可以按下标均匀拆分，元素个数超出 int 范围时抛异常
+     */
+    public static IntStream iterate(int seed, int last, int step) {
+        if (step == 0) {
+            throw new IllegalArgumentException("step must not be zero");
+        }
+        long count = step > 0
+                ? (last < seed ? 0 : ((long) last - seed) / step + 1)
+                : (last > seed ? 0 : ((long) seed - last) / -step + 1);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many elements: " + count);
+        }
+        return IntStream.range(0, (int) count).map(i -> seed + i * step);
+    }
+
+    /**
+     * 观测到的每个元素耗时(纳秒)，各个批次完成时更新，多个线程共享
+     */
+    static final class CostModel {
+
+        private final AtomicLong nanosPerElement = new AtomicLong(-1);
+
+        void observe(long nanos, long elements) {
+            if (elements == 0) {
+                return;
+            }
+            long observed = Math.max(1, nanos / elements);
+            //指数加权平均，新观测值占 1/4
+            nanosPerElement.accumulateAndGet(observed, (old, value) -> old < 0 ? value : old - (old >> 2) + (value >> 2));
+        }
+
+        int nextBatch(int previous) {
+            long cost = nanosPerElement.get();
+            //还没有观测值时从小批次开始翻倍，避免第一批就把很贵的元素全拉进来
+            int grown = previous == 0 ? MIN_BATCH : (int) Math.min(MAX_BATCH, (long) previous << 1);
+            if (cost < 0) {
+                return grown;
+            }
+            long tuned = Math.max(MIN_BATCH, Math.min(MAX_BATCH, TARGET_BATCH_NANOS / cost));
+            return (int) Math.min(grown, tuned);
+        }
+    }
+
+    private static final class BatchingSpliterator<T> implements Spliterator<T>, Consumer<T> {
+
+        private final Spliterator<T> source;
+
+        private final CostModel cost;
+
+        private int batch;
+
+        /**
+         * 拉取批次时暂存 tryAdvance 的元素，避免每个元素创建一个 lambda
+         */
+        private T pending;
+
+        BatchingSpliterator(Spliterator<T> source, CostModel cost) {
+            this.source = source;
+            this.cost = cost;
+        }
+
+        @Override
+        public void accept(T item) {
+            pending = item;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int size = cost.nextBatch(batch);
+            Object[] buffer = new Object[size];
+            int n = 0;
+            while (n < size && source.tryAdvance(this)) {
+                buffer[n++] = pending;
+            }
+            pending = null;
+            if (n == 0) {
+                return null;
+            }
+            batch = n;
+            return new TimedArraySpliterator<>(buffer, n, characteristics(), cost);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            //数据源 SIZED 时，拉走一批之后剩下的部分仍然大小已知，拆出来的批次也都是 SIZED 的
+            int characteristics = source.characteristics() & (ORDERED | DISTINCT | NONNULL | IMMUTABLE | CONCURRENT);
+            return source.hasCharacteristics(SIZED) ? characteristics | SIZED | SUBSIZED : characteristics;
+        }
+    }
+
+    /**
+     * 一批元素，被完整遍历时把耗时反馈给 {@link CostModel}
+     */
+    private static final class TimedArraySpliterator<T> implements Spliterator<T> {
+
+        private final Spliterator<T> delegate;
+
+        private final CostModel cost;
+
+        @SuppressWarnings("unchecked")
+        TimedArraySpliterator(Object[] buffer, int n, int characteristics, CostModel cost) {
+            this((Spliterator<T>) Spliterators.spliterator(buffer, 0, n, characteristics), cost);
+        }
+
+        private TimedArraySpliterator(Spliterator<T> delegate, CostModel cost) {
+            this.delegate = delegate;
+            this.cost = cost;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return delegate.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            long elements = delegate.getExactSizeIfKnown();
+            long start = System.nanoTime();
+            delegate.forEachRemaining(action);
+            cost.observe(System.nanoTime() - start, elements);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<T> prefix = delegate.trySplit();
+            return prefix == null ? null : new TimedArraySpliterator<>(prefix, cost);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+    }
+}
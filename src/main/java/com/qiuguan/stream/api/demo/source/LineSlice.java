@@ -0,0 +1,100 @@
+package com.qiuguan.stream.api.demo.source;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Objects;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 13:05:12 Sunday
+ * <p>
+ * 映射文件中一行的字节视图(不含换行符)，不复制字节，也不解码。
+ * 过滤条件先在字节上判断，只有留下来的行才调用 {@link #toString()} 真正创建 String。
+ * <p>
+ * 作为 {@link CharSequence} 时每个字节对应一个 char，只对 ASCII 内容是准确的；
+ * 包含中文等多字节字符的判断请用 {@link #startsWith(byte[])}、{@link #contains(byte[])} 按字节比较。
+ */
+public final class LineSlice implements CharSequence {
+
+    private final ByteBuffer buffer;
+
+    private final int offset;
+
+    private final int length;
+
+    private final Charset charset;
+
+    LineSlice(ByteBuffer buffer, int offset, int length, Charset charset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * 字节长度
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    public byte byteAt(int index) {
+        return buffer.get(offset + Objects.checkIndex(index, length));
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (byteAt(index) & 0xFF);
+    }
+
+    @Override
+    public LineSlice subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new LineSlice(buffer, offset + start, end - start, charset);
+    }
+
+    public boolean startsWith(byte[] prefix) {
+        return prefix.length <= length && regionMatches(0, prefix);
+    }
+
+    public boolean startsWith(String prefix) {
+        return startsWith(prefix.getBytes(charset));
+    }
+
+    public boolean contains(byte[] needle) {
+        for (int i = 0, last = length - needle.length; i <= last; i++) {
+            if (regionMatches(i, needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(String needle) {
+        return contains(needle.getBytes(charset));
+    }
+
+    private boolean regionMatches(int from, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    /**
+     * 按文件的字符集解码成 String，这是唯一会分配 String 的地方
+     */
+    @Override
+    public String toString() {
+        return length == 0 ? "" : new String(toBytes(), charset);
+    }
+}
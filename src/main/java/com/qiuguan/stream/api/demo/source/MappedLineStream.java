@@ -0,0 +1,228 @@
+package com.qiuguan.stream.api.demo.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 13:24:55 Sunday
+ * <p>
+ * 基于内存映射的按行读取，用来替代大文件上的 {@link java.nio.file.Files#lines(Path)}：
+ * <ul>
+ *     <li>文件按区域(默认 1G)映射，每个区域都在换行符处截断，一行不会跨两个区域，所以支持超过 2G 的文件</li>
+ *     <li>{@link #spliterator()} 按字节范围对半拆分，再对齐到下一个换行符，并行流中每个线程各自解码自己的那一段</li>
+ *     <li>{@link #slices()} 提供字节视图，过滤掉的行不会创建 String</li>
+ * </ul>
+ * 换行符支持 \n 和 \r\n。字符集必须兼容 ASCII(UTF-8、GBK、ISO-8859-1 等)，保证字节 '\n' 只会出现在换行处。
+ * <p>
+ * 映射建立之后文件通道就关闭了，映射区域在不再被引用之后由 GC 回收，所以这里不需要 close。
+ * <pre>
+ *     MappedLineStream.of(path).slices()
+ *             .parallel()
+ *             .filter(line -> line.startsWith("bei"))
+ *             .map(LineSlice::toString)
+ *             .forEach(System.out::println);
+ * </pre>
+ */
+public final class MappedLineStream {
+
+    static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    /**
+     * 小于这个字节数的范围不再拆分，避免并行流把时间花在过小的任务上
+     */
+    private static final int MIN_SPLIT_SIZE = 32 * 1024;
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    private final ByteBuffer[] regions;
+
+    private final long[] regionStarts;
+
+    private final long size;
+
+    private final Charset charset;
+
+    private MappedLineStream(ByteBuffer[] regions, long[] regionStarts, long size, Charset charset) {
+        this.regions = regions;
+        this.regionStarts = regionStarts;
+        this.size = size;
+        this.charset = charset;
+    }
+
+    public static MappedLineStream of(Path path) throws IOException {
+        return of(path, StandardCharsets.UTF_8);
+    }
+
+    public static MappedLineStream of(Path path, Charset charset) throws IOException {
+        return of(path, charset, DEFAULT_REGION_SIZE);
+    }
+
+    static MappedLineStream of(Path path, Charset charset, int regionSize) throws IOException {
+        Objects.requireNonNull(charset, "charset");
+        if ("\n".getBytes(charset).length != 1) {
+            throw new IllegalArgumentException("charset is not ASCII compatible: " + charset);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ByteBuffer> regions = new ArrayList<>();
+            List<Long> starts = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long length = Math.min(regionSize, size - start);
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                int end = (int) length;
+                if (start + length < size) {
+                    //区域截断到最后一个换行符之后，剩下的半行留给下一个区域重新映射
+                    end = lastLineEnd(region, (int) length);
+                    if (end == 0) {
+                        throw new IOException("line at offset " + start + " is longer than the mapped region size " + regionSize);
+                    }
+                }
+                regions.add(region.slice(0, end));
+                starts.add(start);
+                start += end;
+            }
+            long[] regionStarts = starts.stream().mapToLong(Long::longValue).toArray();
+            return new MappedLineStream(regions.toArray(new ByteBuffer[0]), regionStarts, size, charset);
+        }
+    }
+
+    private static int lastLineEnd(ByteBuffer region, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (region.get(i) == LF) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 等价于 {@code Files.lines(path)}，但是可以真正并行
+     */
+    public static Stream<String> lines(Path path) throws IOException {
+        return of(path).lines();
+    }
+
+    public long byteSize() {
+        return size;
+    }
+
+    public Spliterator<LineSlice> spliterator() {
+        return new LineSpliterator(0, size);
+    }
+
+    public Stream<LineSlice> slices() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<String> lines() {
+        return slices().map(LineSlice::toString);
+    }
+
+    private int regionIndex(long position) {
+        int low = 0;
+        int high = regionStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (regionStarts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 字节范围 [position, end) 上的拆分器，两端始终位于行首。
+     */
+    private final class LineSpliterator implements Spliterator<LineSlice> {
+
+        private long position;
+
+        private final long end;
+
+        private int region = -1;
+
+        LineSpliterator(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LineSlice> action) {
+            if (position >= end) {
+                return false;
+            }
+            if (region < 0 || position >= regionStarts[region] + regions[region].limit()) {
+                region = regionIndex(position);
+            }
+            ByteBuffer buffer = regions[region];
+            int from = (int) (position - regionStarts[region]);
+            int limit = (int) Math.min(buffer.limit(), end - regionStarts[region]);
+            int lineEnd = from;
+            while (lineEnd < limit && buffer.get(lineEnd) != LF) {
+                lineEnd++;
+            }
+            position = regionStarts[region] + Math.min(lineEnd + 1, limit);
+            int contentEnd = lineEnd > from && buffer.get(lineEnd - 1) == CR ? lineEnd - 1 : lineEnd;
+            action.accept(new LineSlice(buffer, from, contentEnd - from, charset));
+            return true;
+        }
+
+        @Override
+        public Spliterator<LineSlice> trySplit() {
+            long remaining = end - position;
+            if (remaining < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            long mid = nextLineStart(position + remaining / 2);
+            if (mid <= position || mid >= end) {
+                return null;
+            }
+            Spliterator<LineSlice> prefix = new LineSpliterator(position, mid);
+            position = mid;
+            return prefix;
+        }
+
+        /**
+         * 从 from 开始找到下一个行首；区域本身就在行边界上结束，所以最多扫描到区域末尾
+         */
+        private long nextLineStart(long from) {
+            int index = regionIndex(from);
+            ByteBuffer buffer = regions[index];
+            for (int i = (int) (from - regionStarts[index]); i < buffer.limit(); i++) {
+                if (buffer.get(i) == LF) {
+                    return regionStarts[index] + i + 1;
+                }
+            }
+            return regionStarts[index] + buffer.limit();
+        }
+
+        @Override
+        public long estimateSize() {
+            //按字节数估计，只用于并行拆分时的粒度判断
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.qiuguan.stream.api.demo.table;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.encoding.KeyDictionary;
+import com.qiuguan.stream.api.demo.source.LineSlice;
+import com.qiuguan.stream.api.demo.source.MappedLineStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 22:31:47 Sunday
+ * <p>
+ * 堆外的 Person 存储：几亿行数据放在 {@code List.of(...)} 里时，GC 停顿会成为延迟的主要来源。
+ * 这里所有数据都放在直接内存(direct ByteBuffer)里，堆上只剩几个字典，GC 时间和数据量无关。
+ * <p>
+ * 布局：
+ * <ul>
+ *     <li>定长记录区，每行 {@value #RECORD_SIZE} 字节：age(int) | sex 编码(int) | country 编码(int) | 姓名字节数(int) | 姓名在字符串区的偏移(long)</li>
+ *     <li>字符串区：姓名的 UTF-8 字节依次追加，一个姓名不会跨块</li>
+ *     <li>sex、country 走 {@link KeyDictionary}，只在堆上保存不同取值</li>
+ * </ul>
+ * 两个区都是按块分配的，总容量不受单个 ByteBuffer 2G 的限制。
+ * <p>
+ * 扫描通过可复用的 {@link PersonView} 原地读取字段；{@link #ages()}、{@link #scan()} 按行号范围对半拆分，适合并行流。
+ * 写入(append/load)不是线程安全的，也不要和扫描同时进行。
+ * <p>
+ * JDK17 上 MemorySegment 还在孵化阶段，所以这里用的是 direct ByteBuffer。
+ */
+public class PersonOffHeapStore {
+
+    static final int RECORD_SIZE = 24;
+
+    private static final int AGE = 0;
+
+    private static final int SEX = 4;
+
+    private static final int COUNTRY = 8;
+
+    private static final int NAME_LENGTH = 12;
+
+    private static final int NAME_OFFSET = 16;
+
+    private static final int NULL_NAME = -1;
+
+    private static final int RECORD_CHUNK_SHIFT = 20;
+
+    private static final int RECORDS_PER_CHUNK = 1 << RECORD_CHUNK_SHIFT;
+
+    private static final int STRING_CHUNK_SIZE = 64 << 20;
+
+    private final List<ByteBuffer> records = new ArrayList<>();
+
+    private final List<ByteBuffer> strings = new ArrayList<>();
+
+    private final KeyDictionary sexes = new KeyDictionary();
+
+    private final KeyDictionary countries = new KeyDictionary();
+
+    private long size;
+
+    private long stringSize;
+
+    public long size() {
+        return size;
+    }
+
+    public KeyDictionary sexDictionary() {
+        return sexes;
+    }
+
+    public KeyDictionary countryDictionary() {
+        return countries;
+    }
+
+    public PersonOffHeapStore append(Person person) {
+        String name = person.getName();
+        return append(name == null ? null : name.getBytes(StandardCharsets.UTF_8),
+                Objects.requireNonNull(person.getAge(), "age"), sexes.encode(person.getSex()), countries.encode(person.getCountry()));
+    }
+
+    private PersonOffHeapStore append(byte[] name, int age, int sexCode, int countryCode) {
+        int chunk = (int) (size >>> RECORD_CHUNK_SHIFT);
+        if (chunk == records.size()) {
+            records.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE));
+        }
+        ByteBuffer buffer = records.get(chunk);
+        int base = recordBase(size);
+        buffer.putInt(base + AGE, age);
+        buffer.putInt(base + SEX, sexCode);
+        buffer.putInt(base + COUNTRY, countryCode);
+        if (name == null) {
+            buffer.putInt(base + NAME_LENGTH, NULL_NAME);
+        } else {
+            buffer.putInt(base + NAME_LENGTH, name.length);
+            buffer.putLong(base + NAME_OFFSET, appendString(name));
+        }
+        size++;
+        return this;
+    }
+
+    private long appendString(byte[] bytes) {
+        if (bytes.length > STRING_CHUNK_SIZE) {
+            throw new IllegalArgumentException("name too long: " + bytes.length + " bytes");
+        }
+        int chunk = (int) (stringSize / STRING_CHUNK_SIZE);
+        int offset = (int) (stringSize % STRING_CHUNK_SIZE);
+        if (offset + bytes.length > STRING_CHUNK_SIZE) {
+            //放不下就跳到下一块开头，保证一个姓名不跨块
+            chunk++;
+            offset = 0;
+        }
+        if (chunk == strings.size()) {
+            strings.add(ByteBuffer.allocateDirect(STRING_CHUNK_SIZE));
+        }
+        strings.get(chunk).put(offset, bytes);
+        long position = (long) chunk * STRING_CHUNK_SIZE + offset;
+        stringSize = position + bytes.length;
+        return position;
+    }
+
+    /**
+     * 从文件批量加载，每行一条记录：{@code name,age,sex,country}(UTF-8，sex 可以为空)。
+     * 姓名的字节直接从映射文件复制到字符串区，不经过 String。
+     */
+    public PersonOffHeapStore load(Path path) throws IOException {
+        MappedLineStream.of(path).slices().forEachOrdered(this::appendLine);
+        return this;
+    }
+
+    private void appendLine(LineSlice line) {
+        if (line.length() == 0) {
+            return;
+        }
+        int c1 = indexOf(line, 0);
+        int c2 = indexOf(line, c1 + 1);
+        int c3 = indexOf(line, c2 + 1);
+        if (c1 < 0 || c2 < 0 || c3 < 0) {
+            throw new IllegalArgumentException("expected name,age,sex,country but got: " + line);
+        }
+        byte[] name = line.subSequence(0, c1).toBytes();
+        int age = parseInt(line, c1 + 1, c2);
+        String sex = c3 == c2 + 1 ? null : line.subSequence(c2 + 1, c3).toString();
+        String country = line.subSequence(c3 + 1, line.length()).toString();
+        append(name, age, sexes.encode(sex), countries.encode(country));
+    }
+
+    private static int indexOf(LineSlice line, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.byteAt(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseInt(LineSlice line, int from, int to) {
+        if (from == to) {
+            throw new IllegalArgumentException("missing age: " + line);
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line.byteAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("invalid age: " + line);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private ByteBuffer record(long row) {
+        return records.get((int) (Objects.checkIndex(row, size) >>> RECORD_CHUNK_SHIFT));
+    }
+
+    private static int recordBase(long row) {
+        return (int) (row & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE;
+    }
+
+    public int age(long row) {
+        return record(row).getInt(recordBase(row) + AGE);
+    }
+
+    public int sexCode(long row) {
+        return record(row).getInt(recordBase(row) + SEX);
+    }
+
+    public int countryCode(long row) {
+        return record(row).getInt(recordBase(row) + COUNTRY);
+    }
+
+    public String name(long row) {
+        ByteBuffer record = record(row);
+        int base = recordBase(row);
+        int length = record.getInt(base + NAME_LENGTH);
+        if (length == NULL_NAME) {
+            return null;
+        }
+        long position = record.getLong(base + NAME_OFFSET);
+        byte[] bytes = new byte[length];
+        strings.get((int) (position / STRING_CHUNK_SIZE)).get((int) (position % STRING_CHUNK_SIZE), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Person get(long row) {
+        return new PersonView(this).moveTo(row).toPerson();
+    }
+
+    /**
+     * age 列的扫描，不创建任何对象，按行号范围拆分
+     */
+    public IntStream ages() {
+        return LongStream.range(0, size).mapToInt(this::age);
+    }
+
+    /**
+     * 享元扫描，每个拆分出来的 Spliterator 复用同一个 {@link PersonView}，见 PersonView 的使用限制
+     */
+    public Stream<PersonView> scan() {
+        return StreamSupport.stream(new ViewSpliterator(0, size), false);
+    }
+
+    /**
+     * 逐行创建 Person，只在确实需要对象时使用
+     */
+    public Stream<Person> persons() {
+        return scan().map(PersonView::toPerson);
+    }
+
+    private final class ViewSpliterator implements Spliterator<PersonView> {
+
+        private static final long MIN_SPLIT = 4096;
+
+        private final PersonView view = new PersonView(PersonOffHeapStore.this);
+
+        private long row;
+
+        private final long end;
+
+        ViewSpliterator(long row, long end) {
+            this.row = row;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super PersonView> action) {
+            if (row >= end) {
+                return false;
+            }
+            action.accept(view.moveTo(row++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super PersonView> action) {
+            for (long i = row; i < end; i++) {
+                action.accept(view.moveTo(i));
+            }
+            row = end;
+        }
+
+        @Override
+        public Spliterator<PersonView> trySplit() {
+            long remaining = end - row;
+            if (remaining < MIN_SPLIT) {
+                return null;
+            }
+            long mid = row + remaining / 2;
+            Spliterator<PersonView> prefix = new ViewSpliterator(row, mid);
+            row = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - row;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.qiuguan.stream.api.demo.table;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+import com.qiuguan.stream.api.demo.encoding.KeyDictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 11:20:47 Sunday
+ * <p>
+ * 列式存储的 Person 集合，用来替代聚合热点路径上的 {@code List<Person>}：
+ * <ul>
+ *     <li>age 直接存 int[]，{@code mapToInt(Person::getAge)} 不再需要逐行拆箱</li>
+ *     <li>country、sex 字典编码成 int，分组就是数组下标计数</li>
+ *     <li>name 也走字典，重复的姓名只保存一份</li>
+ * </ul>
+ * 求和、平均值、最值以及 {@code groupingBy(country, counting())} 全部直接在列上完成，不会创建任何 Person。
+ * 只有调用 {@link #rows()} / {@link #row(int)} 时，才会按需构造出 Person。
+ * <p>
+ * 只追加，写入不是线程安全的；写完之后的读取(包括并行流)是安全的。
+ */
+public class PersonTable {
+
+    private final KeyDictionary names;
+
+    private final KeyDictionary sexes;
+
+    private final KeyDictionary countries;
+
+    private int[] nameCodes;
+
+    private int[] ages;
+
+    private int[] sexCodes;
+
+    private int[] countryCodes;
+
+    private int size;
+
+    public PersonTable() {
+        this(16);
+    }
+
+    public PersonTable(int initialCapacity) {
+        this(new KeyDictionary(), new KeyDictionary(), new KeyDictionary(), initialCapacity);
+    }
+
+    private PersonTable(KeyDictionary names, KeyDictionary sexes, KeyDictionary countries, int initialCapacity) {
+        this.names = names;
+        this.sexes = sexes;
+        this.countries = countries;
+        int capacity = Math.max(1, initialCapacity);
+        this.nameCodes = new int[capacity];
+        this.ages = new int[capacity];
+        this.sexCodes = new int[capacity];
+        this.countryCodes = new int[capacity];
+    }
+
+    public static PersonTable of(Collection<Person> persons) {
+        PersonTable table = new PersonTable(persons.size());
+        persons.forEach(table::add);
+        return table;
+    }
+
+    public PersonTable add(Person person) {
+        return add(person.getName(), person.getAge(), person.getSex(), person.getCountry());
+    }
+
+    public PersonTable add(String name, Integer age, String sex, String country) {
+        Objects.requireNonNull(age, "age");
+        if (size == ages.length) {
+            grow();
+        }
+        nameCodes[size] = names.encode(name);
+        ages[size] = age;
+        sexCodes[size] = sexes.encode(sex);
+        countryCodes[size] = countries.encode(country);
+        size++;
+        return this;
+    }
+
+    private void grow() {
+        int capacity = size << 1;
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        sexCodes = Arrays.copyOf(sexCodes, capacity);
+        countryCodes = Arrays.copyOf(countryCodes, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int age(int row) {
+        return ages[Objects.checkIndex(row, size)];
+    }
+
+    public String name(int row) {
+        return names.decode(nameCodes[Objects.checkIndex(row, size)]);
+    }
+
+    public String sex(int row) {
+        return sexes.decode(sexCodes[Objects.checkIndex(row, size)]);
+    }
+
+    public String country(int row) {
+        return countries.decode(countryCodes[Objects.checkIndex(row, size)]);
+    }
+
+    public int countryCode(int row) {
+        return countryCodes[Objects.checkIndex(row, size)];
+    }
+
+    public KeyDictionary countryDictionary() {
+        return countries;
+    }
+
+    public KeyDictionary sexDictionary() {
+        return sexes;
+    }
+
+    public int sexCode(int row) {
+        return sexCodes[Objects.checkIndex(row, size)];
+    }
+
+    /**
+     * country 列的编码，编码在写入时就已经完成，配合 {@link #countryDictionary()} 使用：
+     * {@code FastCollectors.countingByEncoded(table.countryDictionary(), table.countryCodes())}，每行只是一次 long[] 自增
+     */
+    public IntStream countryCodes() {
+        return Arrays.stream(countryCodes, 0, size);
+    }
+
+    public IntStream sexCodes() {
+        return Arrays.stream(sexCodes, 0, size);
+    }
+
+    /**
+     * 按需构造第 row 行的 Person，只在确实需要对象的地方使用
+     */
+    public Person row(int row) {
+        Objects.checkIndex(row, size);
+        return new Person(names.decode(nameCodes[row]), ages[row], sexes.decode(sexCodes[row]), countries.decode(countryCodes[row]));
+    }
+
+    /**
+     * 行视图，流到哪一行才构造哪一行的 Person，基于数组下标，并行时可以均匀拆分
+     */
+    public Stream<Person> rows() {
+        return IntStream.range(0, size).mapToObj(this::row);
+    }
+
+    /**
+     * age 列，sum()/average()/min()/max() 直接作用在 int[] 上，没有拆箱
+     */
+    public IntStream ages() {
+        return Arrays.stream(ages, 0, size);
+    }
+
+    public IntSummaryStatistics ageStatistics() {
+        IntSummaryStatistics statistics = new IntSummaryStatistics();
+        for (int i = 0; i < size; i++) {
+            statistics.accept(ages[i]);
+        }
+        return statistics;
+    }
+
+    /**
+     * 等价于 {@code filter(person -> agePredicate.test(person.getAge()))}，结果仍然是列式的，和当前表共享字典
+     */
+    public PersonTable filterAge(IntPredicate agePredicate) {
+        int[] selected = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (agePredicate.test(ages[i])) {
+                selected[n++] = i;
+            }
+        }
+        return select(selected, n);
+    }
+
+    public PersonTable filterCountry(String country) {
+        return filterCode(countryCodes, countries.codeOf(country), country == null);
+    }
+
+    public PersonTable filterSex(String sex) {
+        return filterCode(sexCodes, sexes.codeOf(sex), sex == null);
+    }
+
+    private PersonTable filterCode(int[] column, int code, boolean matchNull) {
+        //字典里不存在的值，不可能匹配任何一行
+        if (code == KeyDictionary.NULL_CODE && !matchNull) {
+            return select(new int[0], 0);
+        }
+        int[] selected = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (column[i] == code) {
+                selected[n++] = i;
+            }
+        }
+        return select(selected, n);
+    }
+
+    private PersonTable select(int[] selected, int n) {
+        PersonTable table = new PersonTable(names, sexes, countries, n);
+        for (int i = 0; i < n; i++) {
+            int row = selected[i];
+            table.nameCodes[i] = nameCodes[row];
+            table.ages[i] = ages[row];
+            table.sexCodes[i] = sexCodes[row];
+            table.countryCodes[i] = countryCodes[row];
+        }
+        table.size = n;
+        return table;
+    }
+
+    /**
+     * 等价于 {@code groupingBy(Person::getCountry, counting())}，每行只是一次 long[] 自增
+     */
+    public Map<String, Long> countByCountry() {
+        return countBy(countryCodes, countries);
+    }
+
+    /**
+     * 等价于 {@code groupingBy(Person::getSex, counting())}
+     */
+    public Map<String, Long> countBySex() {
+        return countBy(sexCodes, sexes);
+    }
+
+    private Map<String, Long> countBy(int[] column, KeyDictionary dictionary) {
+        long[] counts = new long[dictionary.size()];
+        long nullCount = 0;
+        for (int i = 0; i < size; i++) {
+            int code = column[i];
+            if (code == KeyDictionary.NULL_CODE) {
+                nullCount++;
+            } else {
+                counts[code]++;
+            }
+        }
+        Map<String, Long> result = dictionary.decodeCounts(counts);
+        if (nullCount > 0) {
+            result.put(null, nullCount);
+        }
+        return result;
+    }
+
+    /**
+     * 等价于 {@code groupingBy(Person::getCountry, summarizingInt(Person::getAge))}
+     */
+    public Map<String, IntSummaryStatistics> ageStatisticsByCountry() {
+        //null 放在最后一个槽位
+        int nullSlot = countries.size();
+        IntSummaryStatistics[] statistics = new IntSummaryStatistics[nullSlot + 1];
+        for (int i = 0; i < size; i++) {
+            int slot = slotOf(countryCodes[i], nullSlot);
+            if (statistics[slot] == null) {
+                statistics[slot] = new IntSummaryStatistics();
+            }
+            statistics[slot].accept(ages[i]);
+        }
+        Map<String, IntSummaryStatistics> result = new LinkedHashMap<>();
+        for (int slot = 0; slot < statistics.length; slot++) {
+            if (statistics[slot] != null) {
+                result.put(slot == nullSlot ? null : countries.decode(slot), statistics[slot]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 等价于 {@code groupingBy(Person::getCountry)}，每个分组仍然是列式的 PersonTable
+     */
+    public Map<String, PersonTable> groupByCountry() {
+        //null 放在最后一个槽位，先数出每组大小，再一次遍历把行号分到各组
+        int nullSlot = countries.size();
+        int[] counts = new int[nullSlot + 1];
+        for (int i = 0; i < size; i++) {
+            counts[slotOf(countryCodes[i], nullSlot)]++;
+        }
+        int[][] selected = new int[counts.length][];
+        for (int slot = 0; slot < counts.length; slot++) {
+            selected[slot] = new int[counts[slot]];
+        }
+        int[] filled = new int[counts.length];
+        for (int i = 0; i < size; i++) {
+            int slot = slotOf(countryCodes[i], nullSlot);
+            selected[slot][filled[slot]++] = i;
+        }
+        Map<String, PersonTable> result = new LinkedHashMap<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                result.put(slot == nullSlot ? null : countries.decode(slot), select(selected[slot], counts[slot]));
+            }
+        }
+        return result;
+    }
+
+    private static int slotOf(int code, int nullSlot) {
+        return code == KeyDictionary.NULL_CODE ? nullSlot : code;
+    }
+}
@@ -0,0 +1,68 @@
+package com.qiuguan.stream.api.demo.table;
+
+import com.qiuguan.stream.api.demo.bean.Person;
+
+/**
+ * @author fu yuan hui
+ * @since 2026-10-18 22:20:05 Sunday
+ * <p>
+ * {@link PersonOffHeapStore} 中一行记录的享元视图：字段直接从堆外内存读取，不创建 Person。
+ * <p>
+ * 扫描时每个 Spliterator 只有一个 PersonView，移动到下一行时原地复用，所以它只在当前这次回调里有效，
+ * 不能被收集、缓存或者传给别的线程；需要保留时调用 {@link #toPerson()}。
+ */
+public final class PersonView {
+
+    private final PersonOffHeapStore store;
+
+    private long row = -1;
+
+    PersonView(PersonOffHeapStore store) {
+        this.store = store;
+    }
+
+    PersonView moveTo(long row) {
+        this.row = row;
+        return this;
+    }
+
+    public long row() {
+        return row;
+    }
+
+    public int age() {
+        return store.age(row);
+    }
+
+    public int countryCode() {
+        return store.countryCode(row);
+    }
+
+    public int sexCode() {
+        return store.sexCode(row);
+    }
+
+    public String country() {
+        return store.countryDictionary().decode(countryCode());
+    }
+
+    public String sex() {
+        return store.sexDictionary().decode(sexCode());
+    }
+
+    /**
+     * 从堆外字节解码出 String，会分配内存，过滤条件尽量用 age、countryCode 这些不分配的字段
+     */
+    public String name() {
+        return store.name(row);
+    }
+
+    public Person toPerson() {
+        return new Person(name(), age(), sex(), country());
+    }
+
+    @Override
+    public String toString() {
+        return "PersonView(row=" + row + ", name=" + name() + ", age=" + age() + ", sex=" + sex() + ", country=" + country() + ")";
+    }
+}